@@ -0,0 +1,89 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole export of synthetic forms. Throughput and sampled latencies (with percentiles) are measured in the same run; use {@code -prof gc} for the
+ * allocation rate. For example: {@code -Djmh.args="ExportBenchmark -p forms=500 -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+    private static final String FIXTURE = "The 5 Frustrations on Teamworking 1.json";
+    private static final long SEED = 42;
+
+    @Param({"10", "100"})
+    private int forms;
+
+    @Param({"5"})
+    private int categories;
+
+    @Param({"20"})
+    private int questions;
+
+    @Param({"10"})
+    private int variables;
+
+    @Param({"true"})
+    private boolean questionScores;
+
+    @Param({"XLS", "XLSX"})
+    private XlsFormat format;
+
+    private FormsAsXls formsAsXls;
+
+    @Setup
+    public void prepare() throws IOException {
+        final List<DroolsSubmittedForm> droolsSubmittedForms = new SyntheticForms(FIXTURE, SEED).create(forms, categories, questions, variables,
+                questionScores);
+        formsAsXls = new FormsAsXls(droolsSubmittedForms, new ArrayList<>());
+        formsAsXls.setFormat(format);
+    }
+
+    @Benchmark
+    public byte[] generate() throws InvalidXlsElementException {
+        return formsAsXls.generate();
+    }
+}
@@ -0,0 +1,206 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexes of the layout: the {@link HashMap} by {@link CompositeKey} of the variable rows and the {@link StringDictionary}, against an open
+ * addressing table of primitive ordinals. Each row key is created inside the loop, as each form has its own texts, and the texts looked up are
+ * copies of the indexed ones. {@link #layout()} is the whole layout of forms with many variables, to compare the lookups with the rest of the
+ * work of each form.
+ * <p>
+ * In a short run the map and the table take the same time for the row keys (25-30 ns, most of it creating the key) and for the texts of the
+ * dictionary (13-17 ns). The layout of a form with 1000 variables takes about 1.3 ms, so the lookups of its variables are around 1% of it, and
+ * the rows of a schema are only looked up for its first form. The layout keeps the JDK maps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowIndexBenchmark {
+    private static final String FIXTURE = "The 5 Frustrations on Teamworking 1.json";
+    private static final long SEED = 42;
+    private static final int CELLS = 1000;
+    private static final int LAYOUT_FORMS = 100;
+
+    @Param({"20", "1000"})
+    private int variablesByElement;
+
+    private final String[] xpaths = new String[CELLS];
+    private final String[] keys = new String[CELLS];
+    private final String[] texts = new String[CELLS];
+    private final Map<CompositeKey, Integer> compositeKeyRows = new HashMap<>();
+    private final OpenAddressingIndex<CompositeKey> compositeKeyIndex = new OpenAddressingIndex<>();
+    private final StringDictionary dictionary = new StringDictionary();
+    private final OpenAddressingIndex<String> textIndex = new OpenAddressingIndex<>();
+    private List<DroolsSubmittedForm> droolsSubmittedForms;
+
+    @Setup
+    public void prepare() throws IOException {
+        for (int i = 0; i < CELLS; i++) {
+            final String xpath = "/DroolsSubmittedForm[@label='form']/children/DroolsSubmittedCategory[@name='category_" + (i / variablesByElement) + "']";
+            final String key = "Variable_" + (i % variablesByElement);
+            compositeKeyRows.put(new CompositeKey(xpath, key), i);
+            compositeKeyIndex.add(new CompositeKey(xpath, key));
+            dictionary.getId(xpath + key);
+            textIndex.add(xpath + key);
+
+            xpaths[i] = new String(xpath);
+            keys[i] = new String(key);
+            texts[i] = xpaths[i] + keys[i];
+        }
+        droolsSubmittedForms = new SyntheticForms(FIXTURE, SEED).create(LAYOUT_FORMS, 1, 1, variablesByElement, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int compositeKeyMap() {
+        int rows = 0;
+        for (int i = 0; i < CELLS; i++) {
+            rows += compositeKeyRows.get(new CompositeKey(xpaths[i], keys[i]));
+        }
+        return rows;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int compositeKeyOpenAddressing() {
+        int rows = 0;
+        for (int i = 0; i < CELLS; i++) {
+            rows += compositeKeyIndex.add(new CompositeKey(xpaths[i], keys[i]));
+        }
+        return rows;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int dictionaryMap() {
+        int ids = 0;
+        for (int i = 0; i < CELLS; i++) {
+            ids += dictionary.getId(texts[i]);
+        }
+        return ids;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int dictionaryOpenAddressing() {
+        int ids = 0;
+        for (int i = 0; i < CELLS; i++) {
+            ids += textIndex.add(texts[i]);
+        }
+        return ids;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LAYOUT_FORMS)
+    public int layout() throws InvalidXlsElementException {
+        final FormsAsXls formsAsXls = new FormsAsXls(droolsSubmittedForms, new ArrayList<>());
+        try (FormsLayout formsLayout = formsAsXls.createConversor(false).createLayout(droolsSubmittedForms.iterator(), new ArrayList<>(),
+                new ExportMetrics())) {
+            return formsLayout.getVariableRows().size();
+        }
+    }
+
+    /**
+     * Position of each key in insertion order, on an open addressing table of primitive ordinals with linear probing: a lookup neither allocates
+     * nor boxes. The hash of each key is kept too, so most collisions are discarded without comparing the keys.
+     */
+    private static final class OpenAddressingIndex<K> {
+        private static final int INITIAL_CAPACITY = 16;
+        // Fibonacci hashing, to spread the keys with similar hashes.
+        private static final int HASH_MULTIPLIER = 0x9E3779B9;
+        private static final int HALF_BITS = 16;
+
+        private Object[] keys = new Object[INITIAL_CAPACITY];
+        private int[] hashes = new int[INITIAL_CAPACITY];
+        // Ordinal plus one of the key of each slot, 0 for empty slots. Never more than half full.
+        private int[] slots = new int[INITIAL_CAPACITY * 2];
+        private int size = 0;
+
+        /**
+         * @return the ordinal of the key. If the key is new, it is added with the next ordinal.
+         */
+        int add(K key) {
+            final int hash = hash(key);
+            final int mask = slots.length - 1;
+            int slot = hash & mask;
+            for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+                final int ordinal = slots[slot] - 1;
+                if (hashes[ordinal] == hash && keys[ordinal].equals(key)) {
+                    return ordinal;
+                }
+            }
+            if (size == keys.length) {
+                grow();
+                return add(key);
+            }
+            keys[size] = key;
+            hashes[size] = hash;
+            slots[slot] = size + 1;
+            return size++;
+        }
+
+        private void grow() {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+            slots = new int[slots.length * 2];
+            final int mask = slots.length - 1;
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                int slot = hashes[ordinal] & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = ordinal + 1;
+            }
+        }
+
+        private static int hash(Object key) {
+            final int hash = key.hashCode() * HASH_MULTIPLIER;
+            return hash ^ (hash >>> HALF_BITS);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row lookup of one cell: the former key joined the xpath and the variable name on each lookup, the composite key only wraps them. Both keys are
+ * created for each cell, as when the values of each form are extracted; {@link #schemaCompositeKey} reuses the keys created once for all the forms
+ * of a {@link VariableCatalog} schema. The texts of the lookups are copies of the indexed ones, as each form has its own texts. Run with
+ * {@code -prof gc} to compare the bytes allocated by cell.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowKeyBenchmark {
+    private static final int CELLS = 1000;
+    private static final int VARIABLES_BY_ELEMENT = 20;
+
+    private final String[] xpaths = new String[CELLS];
+    private final String[] keys = new String[CELLS];
+    private final CompositeKey[] compositeKeys = new CompositeKey[CELLS];
+    private final Map<String, Integer> rowsByText = new HashMap<>();
+    private final Map<CompositeKey, Integer> rowsByCompositeKey = new HashMap<>();
+
+    @Setup
+    public void prepare() {
+        for (int i = 0; i < CELLS; i++) {
+            final String xpath = "/DroolsSubmittedForm[@label='form']/children/DroolsSubmittedCategory[@name='category_" + (i / VARIABLES_BY_ELEMENT)
+                    + "']";
+            final String key = "Variable_" + (i % VARIABLES_BY_ELEMENT);
+            rowsByText.put(xpath + "_" + key, i);
+            rowsByCompositeKey.put(new CompositeKey(xpath, key), i);
+
+            xpaths[i] = new String(xpath);
+            keys[i] = new String(key);
+            compositeKeys[i] = new CompositeKey(xpaths[i], keys[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public void joinedText(Blackhole blackhole) {
+        for (int i = 0; i < CELLS; i++) {
+            blackhole.consume(rowsByText.get(xpaths[i] + "_" + keys[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public void compositeKey(Blackhole blackhole) {
+        for (int i = 0; i < CELLS; i++) {
+            blackhole.consume(rowsByCompositeKey.get(new CompositeKey(xpaths[i], keys[i])));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public void schemaCompositeKey(Blackhole blackhole) {
+        for (int i = 0; i < CELLS; i++) {
+            blackhole.consume(rowsByCompositeKey.get(compositeKeys[i]));
+        }
+    }
+}
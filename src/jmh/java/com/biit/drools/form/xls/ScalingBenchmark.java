@@ -0,0 +1,104 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export of copies of the same form. The time by form must not grow with the number of forms: compare the scores of each {@code forms} value divided
+ * by the number of forms. For example: {@code -Djmh.args="ScalingBenchmark -p forms=50,200,800"}.
+ * <p>
+ * With {@code parallelism} the forms are read on a pool of that size. With {@code ndjson} they are parsed from newline delimited json on each
+ * export, on the threads of the pool, instead of being parsed once before the benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScalingBenchmark {
+    private static final String FIXTURE = "The 5 Frustrations on Teamworking 1.json";
+
+    @Param({"50", "200"})
+    private int forms;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    @Param({"false"})
+    private boolean ndjson;
+
+    private FormsAsXls formsAsXls;
+    private byte[] lines;
+
+    @Setup
+    public void prepare() throws IOException {
+        final String text;
+        try (InputStream inputStream = ScalingBenchmark.class.getClassLoader().getResourceAsStream(FIXTURE)) {
+            if (inputStream == null) {
+                throw new IOException("Fixture '" + FIXTURE + "' not found.");
+            }
+            text = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        final List<DroolsSubmittedForm> droolsSubmittedForms = new ArrayList<>();
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < forms; i++) {
+            droolsSubmittedForms.add(DroolsSubmittedForm.getFromJson(text));
+            builder.append(text.replace('\n', ' ').replace('\r', ' ')).append('\n');
+        }
+        formsAsXls = new FormsAsXls(droolsSubmittedForms, new ArrayList<>());
+        formsAsXls.setParallelism(parallelism);
+        lines = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] generate() throws InvalidXlsElementException {
+        if (!ndjson) {
+            return formsAsXls.generate();
+        }
+        // A stream can only be read once.
+        final FormsAsXls fromNdjson = new FormsAsXls(SubmittedFormReader.fromNdjson(new ByteArrayInputStream(lines)), new ArrayList<>());
+        fromNdjson.setParallelism(parallelism);
+        return fromNdjson.generate();
+    }
+}
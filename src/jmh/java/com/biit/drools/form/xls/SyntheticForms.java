@@ -0,0 +1,138 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.DroolsSubmittedQuestion;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates forms of any size for the benchmarks. The form name, the users and the answers are taken from one of the json files of the tests, and the
+ * forms are created with the same json format, therefore they are parsed as any other submitted form.
+ */
+public final class SyntheticForms {
+    private static final String FORM_CLASS = "com.biit.drools.form.DroolsSubmittedForm";
+    private static final String CATEGORY_CLASS = "com.biit.drools.form.DroolsSubmittedCategory";
+    private static final String QUESTION_CLASS = "com.biit.drools.form.DroolsSubmittedQuestion";
+    private static final int MAX_SCORE = 10;
+
+    private final String formName;
+    private final List<String> answers = new ArrayList<>();
+    private final long seed;
+
+    /**
+     * @param fixture json file of a submitted form on the test resources.
+     * @param seed    seed of the random answers and values, for repeatable forms.
+     * @throws IOException if the file cannot be read.
+     */
+    public SyntheticForms(String fixture, long seed) throws IOException {
+        try (InputStream inputStream = SyntheticForms.class.getClassLoader().getResourceAsStream(fixture)) {
+            if (inputStream == null) {
+                throw new IOException("Fixture '" + fixture + "' not found.");
+            }
+            final DroolsSubmittedForm form = DroolsSubmittedForm.getFromJson(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            formName = form.getName();
+            for (DroolsSubmittedQuestion question : form.getAllChildrenInHierarchy(DroolsSubmittedQuestion.class)) {
+                answers.addAll(question.getAnswers());
+            }
+        }
+        if (answers.isEmpty()) {
+            answers.add("answer");
+        }
+        this.seed = seed;
+    }
+
+    /**
+     * Creates a list of forms with the same structure and different answers.
+     *
+     * @param forms           number of forms.
+     * @param categories      categories of each form.
+     * @param questions       questions of each category.
+     * @param formVariables   variables of the form itself.
+     * @param questionScores  if true, each question has also a 'Score' variable.
+     * @return the forms.
+     */
+    public List<DroolsSubmittedForm> create(int forms, int categories, int questions, int formVariables, boolean questionScores) {
+        final Random random = new Random(seed);
+        final List<DroolsSubmittedForm> result = new ArrayList<>(forms);
+        for (int i = 0; i < forms; i++) {
+            result.add(DroolsSubmittedForm.getFromJson(toJson(random, i, categories, questions, formVariables, questionScores)));
+        }
+        return result;
+    }
+
+    private String toJson(Random random, int index, int categories, int questions, int formVariables, boolean questionScores) {
+        final String formXpath = "/DroolsSubmittedForm[@label='" + formName + "']";
+        final StringBuilder variables = new StringBuilder("{");
+        final StringBuilder json = new StringBuilder();
+        json.append("{\"class\":").append(quote(FORM_CLASS)).append(",\"tag\":").append(quote(formName)).append(",\"text\":").append(quote(formName))
+                .append(",\"submittedBy\":").append(quote("user_" + index)).append(",\"children\":[");
+        for (int c = 0; c < categories; c++) {
+            final String category = "category_" + c;
+            json.append(c > 0 ? "," : "").append("{\"class\":").append(quote(CATEGORY_CLASS)).append(",\"tag\":").append(quote(category))
+                    .append(",\"text\":").append(quote(category)).append(",\"children\":[");
+            for (int q = 0; q < questions; q++) {
+                final String question = "question_" + c + "_" + q;
+                json.append(q > 0 ? "," : "").append("{\"class\":").append(quote(QUESTION_CLASS)).append(",\"tag\":").append(quote(question))
+                        .append(",\"text\":").append(quote(question)).append(",\"children\":[],\"answers\":[")
+                        .append(quote(answers.get(random.nextInt(answers.size())))).append("]}");
+                if (questionScores) {
+                    variables.append(variables.length() > 1 ? "," : "")
+                            .append(quote(formXpath + "/children/DroolsSubmittedCategory[@name='" + category + "']/children/DroolsSubmittedQuestion[@name='"
+                                    + question + "']"))
+                            .append(":{\"Score\":").append(random.nextInt(MAX_SCORE)).append(".0}");
+                }
+            }
+            json.append("]}");
+        }
+        json.append(']');
+        if (formVariables > 0) {
+            variables.append(variables.length() > 1 ? "," : "").append(quote(formXpath)).append(":{");
+            for (int v = 0; v < formVariables; v++) {
+                variables.append(v > 0 ? "," : "").append(quote("Variable" + v)).append(':').append(random.nextDouble());
+            }
+            variables.append('}');
+        }
+        if (variables.length() > 1) {
+            json.append(",\"formVariables\":").append(quote(variables.append('}').toString()));
+        }
+        return json.append('}').toString();
+    }
+
+    private static String quote(String text) {
+        final StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            final char character = text.charAt(i);
+            if (character == '"' || character == '\\') {
+                quoted.append('\\');
+            }
+            quoted.append(character);
+        }
+        return quoted.append('"').toString();
+    }
+}
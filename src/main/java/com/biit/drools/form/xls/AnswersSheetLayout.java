@@ -0,0 +1,77 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows of one category sheet, in the order of their first appearance on the forms.
+ */
+final class AnswersSheetLayout {
+    private final String sheetName;
+    private final Map<String, QuestionRowLayout> rowsByXpath = new HashMap<>();
+    private final List<QuestionRowLayout> rows = new ArrayList<>();
+    private boolean written = false;
+    private int writtenRows = 0;
+
+    AnswersSheetLayout(String sheetName) {
+        this.sheetName = sheetName;
+    }
+
+    String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * Gets the row of a question, or adds it at the end of the sheet.
+     */
+    QuestionRowLayout getRow(String xpath, String label, FormsLayout formsLayout) {
+        return rowsByXpath.computeIfAbsent(xpath, k -> {
+            final QuestionRowLayout row = new QuestionRowLayout(xpath, formsLayout.getDictionary().intern(label), formsLayout.createColumn());
+            rows.add(row);
+            return row;
+        });
+    }
+
+    List<QuestionRowLayout> getRows() {
+        return rows;
+    }
+
+    /**
+     * The sheet and its current rows are already on the document.
+     */
+    void setWritten() {
+        written = true;
+        writtenRows = rows.size();
+    }
+
+    boolean isWritten() {
+        return written;
+    }
+
+    int getWrittenRows() {
+        return writtenRows;
+    }
+}
@@ -0,0 +1,57 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Column with the values on the heap, one reference for each form. The column grows as new forms are added to the layout.
+ */
+final class ArrayValueColumn implements ValueColumn {
+    private String[] values;
+    private final StringDictionary dictionary;
+
+    /**
+     * @param forms      forms already on the layout.
+     * @param dictionary single instance of each text.
+     */
+    ArrayValueColumn(int forms, StringDictionary dictionary) {
+        this.values = new String[forms];
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public String get(int formIndex) {
+        return formIndex < values.length ? values[formIndex] : null;
+    }
+
+    @Override
+    public void set(int formIndex, String value) {
+        if (formIndex >= values.length) {
+            if (value == null) {
+                return;
+            }
+            values = Arrays.copyOf(values, Math.max(formIndex + 1, values.length + (values.length >> 1)));
+        }
+        values[formIndex] = dictionary.intern(value);
+    }
+}
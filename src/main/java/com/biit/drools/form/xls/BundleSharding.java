@@ -0,0 +1,40 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * How the forms are split between the workbooks of a {@link XlsBundle}.
+ */
+public enum BundleSharding {
+
+    /**
+     * Each workbook has all the categories of a range of forms. Forms are read while the bundle is written, and only the forms of one workbook are
+     * in memory at the same time.
+     */
+    FORM_RANGE,
+
+    /**
+     * Each workbook has one category of all the forms, and the variables are on their own workbook. All the forms are read before the first
+     * workbook is written.
+     */
+    CATEGORY
+}
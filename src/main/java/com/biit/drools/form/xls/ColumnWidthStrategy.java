@@ -0,0 +1,44 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * How the width of the columns is calculated.
+ */
+public enum ColumnWidthStrategy {
+
+    /**
+     * Estimated from the length of the longest text written on each column. Does not need any font installed.
+     */
+    ESTIMATED,
+
+    /**
+     * Measured with the font metrics of the system. More accurate but expensive, and needs the fonts to be available. If they are not, the estimated
+     * width is used.
+     */
+    AUTO_SIZE,
+
+    /**
+     * Columns keep the default width.
+     */
+    NONE
+}
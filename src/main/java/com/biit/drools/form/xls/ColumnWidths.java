@@ -0,0 +1,65 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Keeps the length of the longest text written on each column of a sheet, to set the column widths once the sheet is finished.
+ */
+final class ColumnWidths {
+    // Width units are 1/256 of a character.
+    private static final int CHARACTER_WIDTH = 256;
+    private static final int MAX_COLUMN_WIDTH = 255 * CHARACTER_WIDTH;
+    private static final int PADDING_CHARACTERS = 2;
+    private static final int INITIAL_COLUMNS = 16;
+
+    // Characters of the longest text by column, scaled by the font size.
+    private int[] widths = new int[INITIAL_COLUMNS];
+
+    void update(int column, String text, int fontSize) {
+        if (text == null) {
+            return;
+        }
+        if (column >= widths.length) {
+            widths = Arrays.copyOf(widths, Math.max(column + 1, widths.length * 2));
+        }
+        final int width = text.length() * fontSize;
+        if (width > widths[column]) {
+            widths[column] = width;
+        }
+    }
+
+    /**
+     * Width to set on a column.
+     *
+     * @param column the column index.
+     * @return the estimated width in 1/256 of a character, or 0 if nothing has been written on the column.
+     */
+    int getWidth(int column) {
+        if (column >= widths.length || widths[column] == 0) {
+            return 0;
+        }
+        final int characters = (widths[column] + ExportContext.DEFAULT_FONT_SIZE - 1) / ExportContext.DEFAULT_FONT_SIZE + PADDING_CHARACTERS;
+        return Math.min(characters * CHARACTER_WIDTH, MAX_COLUMN_WIDTH);
+    }
+}
@@ -0,0 +1,159 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a table in a binary columnar format, similar to an Arrow record batch: all the values of a column are stored together, so a reader can
+ * load only the columns it needs, and columns where every value is a number are stored as numbers. The table always has a row for each form,
+ * whatever the {@link XlsLayout} of the export. All the integers are big endian.
+ *
+ * <pre>
+ * table    = "FCOL" version(1 byte) name rows(int) columns(int) column*
+ * column   = name scope type(1 byte: 0 text, 1 number) validity value*
+ * validity = one bit for each row, least significant bit first, set if the form has a value
+ * value    = text: string, number: IEEE 754 double(8 bytes). Only for the forms with a value.
+ * string   = length of the UTF-8 bytes(int) bytes, or -1 for no text
+ * </pre>
+ * The first column is the header of each form, with the title of the first column of the sheet as name. The scope of a column is only set on the
+ * table of the variables.
+ */
+final class ColumnarTableWriter implements TableWriter {
+    static final byte[] MAGIC = "FCOL".getBytes(StandardCharsets.US_ASCII);
+    static final byte VERSION = 1;
+    static final byte TEXT = 0;
+    static final byte NUMBER = 1;
+    private static final int BITS_PER_BYTE = 8;
+
+    @Override
+    public void write(LayoutTable table, OutputStream outputStream, ExportMetrics metrics) throws IOException {
+        final TableBuffer buffer = new TableBuffer(outputStream);
+        buffer.writeBytes(MAGIC);
+        buffer.writeByte(VERSION);
+        writeString(buffer, table.getName());
+        buffer.writeInt(table.getForms());
+        buffer.writeInt(table.getColumns() + 1);
+
+        long cells = writeTextColumn(buffer, table.hasScopes() ? FormsLayout.VARIABLE_LABEL_TITLE : FormsLayout.FORM_LABEL_TITLE, null,
+                table.getHeaders().toArray(new String[0]));
+        for (int column = 0; column < table.getColumns(); column++) {
+            // Read once, as the values can be on a spill file.
+            final String[] values = new String[table.getForms()];
+            for (int form = 0; form < values.length; form++) {
+                values[form] = table.getValue(column, form);
+            }
+            final double[] numbers = toNumbers(values);
+            if (numbers == null) {
+                cells += writeTextColumn(buffer, table.getLabel(column), table.getScope(column), values);
+            } else {
+                cells += writeNumberColumn(buffer, table.getLabel(column), table.getScope(column), values, numbers);
+            }
+        }
+        buffer.flush();
+        metrics.add(ExportCounter.ROWS, table.getForms());
+        metrics.add(ExportCounter.CELLS, cells);
+    }
+
+    /**
+     * @return the written values.
+     */
+    private long writeTextColumn(TableBuffer buffer, String name, String scope, String[] values) throws IOException {
+        writeString(buffer, name);
+        writeString(buffer, scope);
+        buffer.writeByte(TEXT);
+        final int present = writeValidity(buffer, values);
+        for (String value : values) {
+            if (value != null) {
+                writeString(buffer, value);
+            }
+        }
+        return present;
+    }
+
+    /**
+     * @return the written values.
+     */
+    private long writeNumberColumn(TableBuffer buffer, String name, String scope, String[] values, double[] numbers)
+            throws IOException {
+        writeString(buffer, name);
+        writeString(buffer, scope);
+        buffer.writeByte(NUMBER);
+        final int present = writeValidity(buffer, values);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                buffer.writeDouble(numbers[i]);
+            }
+        }
+        return present;
+    }
+
+    /**
+     * @return the number of values that are not null.
+     */
+    private int writeValidity(TableBuffer buffer, String[] values) throws IOException {
+        int present = 0;
+        int bits = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                bits |= 1 << (i % BITS_PER_BYTE);
+                present++;
+            }
+            if (i % BITS_PER_BYTE == BITS_PER_BYTE - 1) {
+                buffer.writeByte(bits);
+                bits = 0;
+            }
+        }
+        if (values.length % BITS_PER_BYTE != 0) {
+            buffer.writeByte(bits);
+        }
+        return present;
+    }
+
+    private void writeString(TableBuffer buffer, String text) throws IOException {
+        if (text == null) {
+            buffer.writeInt(-1);
+            return;
+        }
+        buffer.writeSizedText(text);
+    }
+
+    /**
+     * @return the value of each form as a number, or null if any value is not a number or if the column has no values.
+     */
+    private double[] toNumbers(String[] values) {
+        final double[] numbers = new double[values.length];
+        boolean present = false;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                if (!NumericScanner.isNumber(values[i])) {
+                    return null;
+                }
+                numbers[i] = Double.parseDouble(values[i]);
+                present = true;
+            }
+        }
+        return present ? numbers : null;
+    }
+}
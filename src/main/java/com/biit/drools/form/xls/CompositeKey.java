@@ -0,0 +1,72 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.util.Objects;
+
+/**
+ * Key made of two texts, used to merge sheets and rows of different forms. Unlike joining both texts with a separator, two different pairs never
+ * produce the same key, and the hash is calculated only once.
+ */
+final class CompositeKey {
+    private static final int HASH_MULTIPLIER = 31;
+
+    private final String first;
+    private final String second;
+    private final int hash;
+
+    CompositeKey(String first, String second) {
+        this.first = first;
+        this.second = second;
+        this.hash = HASH_MULTIPLIER * Objects.hashCode(first) + Objects.hashCode(second);
+    }
+
+    String getFirst() {
+        return first;
+    }
+
+    String getSecond() {
+        return second;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof CompositeKey)) {
+            return false;
+        }
+        final CompositeKey other = (CompositeKey) object;
+        return hash == other.hash && Objects.equals(first, other.first) && Objects.equals(second, other.second);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return first + "/" + second;
+    }
+}
@@ -0,0 +1,102 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Thread safe replacement of {@code new DecimalFormat("##.###")}. Most values are formatted without creating any formatter; ties and very large
+ * numbers use a {@link DecimalFormat} of the current thread, so the result is always the same as the original format.
+ */
+final class DecimalFormatter {
+    private static final String PATTERN = "##.###";
+    private static final int RADIX = 10;
+    private static final long SCALE = 1000;
+    private static final double MAX_FAST_VALUE = 1e9;
+    private static final double TIE = 0.5;
+    private static final double TIE_TOLERANCE = 1e-3;
+    private static final char DECIMAL_SEPARATOR = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+    private static final ThreadLocal<NumberFormat> DECIMAL_FORMAT = ThreadLocal.withInitial(() -> new DecimalFormat(PATTERN));
+    // Same rounding, but with a decimal separator that Double.parseDouble understands.
+    private static final ThreadLocal<NumberFormat> ROOT_DECIMAL_FORMAT = ThreadLocal.withInitial(() ->
+            new DecimalFormat(PATTERN, DecimalFormatSymbols.getInstance(Locale.ROOT)));
+
+    private DecimalFormatter() {
+    }
+
+    /**
+     * Formats a number with up to three decimals.
+     *
+     * @param value the number.
+     * @return the same text as {@code new DecimalFormat("##.###").format(value)}.
+     */
+    static String format(double value) {
+        final double absolute = Math.abs(value);
+        if (absolute < MAX_FAST_VALUE) {
+            final double scaled = absolute * SCALE;
+            final double rounded = Math.rint(scaled);
+            if (Math.abs(Math.abs(scaled - rounded) - TIE) > TIE_TOLERANCE) {
+                return toText(value < 0 || (value == 0 && 1 / value < 0), (long) rounded);
+            }
+        }
+        // Ties, huge numbers, NaN and infinite.
+        return DECIMAL_FORMAT.get().format(value);
+    }
+
+    /**
+     * Rounds a number to the value shown by {@link #format(double)}.
+     *
+     * @param value a finite number.
+     * @return the number rounded to three decimals.
+     */
+    static double round(double value) {
+        final double absolute = Math.abs(value);
+        if (absolute < MAX_FAST_VALUE) {
+            final double scaled = absolute * SCALE;
+            final double rounded = Math.rint(scaled);
+            if (Math.abs(Math.abs(scaled - rounded) - TIE) > TIE_TOLERANCE) {
+                return Math.copySign(rounded / SCALE, value);
+            }
+        }
+        return Double.parseDouble(ROOT_DECIMAL_FORMAT.get().format(value));
+    }
+
+    private static String toText(boolean negative, long scaled) {
+        final StringBuilder text = new StringBuilder();
+        if (negative) {
+            text.append('-');
+        }
+        text.append(scaled / SCALE);
+        long decimals = scaled % SCALE;
+        if (decimals != 0) {
+            text.append(DECIMAL_SEPARATOR);
+            for (long divisor = SCALE / RADIX; decimals != 0; divisor /= RADIX) {
+                text.append((char) ('0' + decimals / divisor));
+                decimals %= divisor;
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,201 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a table as CSV or TSV text, encoded as UTF-8. The cells are the same as the sheet of the workbook with the same {@link XlsLayout}: a title
+ * row (two for the variables with {@link XlsLayout#FORMS_AS_ROWS}) and a row for each question, variable or form. Forms without value have an empty
+ * field.
+ */
+final class DelimitedTableWriter implements TableWriter {
+    private static final char QUOTE = '"';
+    private static final String QUOTE_TEXT = "\"";
+    private static final String ESCAPED_QUOTE = "\"\"";
+    private static final char ESCAPE = '\\';
+
+    private final char delimiter;
+    private final String lineSeparator;
+    private final boolean quoted;
+    private final XlsLayout layout;
+
+    /**
+     * @param format {@link TableFormat#CSV} or {@link TableFormat#TSV}.
+     * @param layout orientation of the forms.
+     */
+    DelimitedTableWriter(TableFormat format, XlsLayout layout) {
+        if (format == TableFormat.CSV) {
+            delimiter = ',';
+            lineSeparator = "\r\n";
+            quoted = true;
+        } else if (format == TableFormat.TSV) {
+            delimiter = '\t';
+            lineSeparator = "\n";
+            quoted = false;
+        } else {
+            throw new IllegalArgumentException("Format '" + format + "' is not a delimited format.");
+        }
+        this.layout = layout;
+    }
+
+    @Override
+    public void write(LayoutTable table, OutputStream outputStream, ExportMetrics metrics) throws IOException {
+        final TableBuffer writer = new TableBuffer(outputStream);
+        final long cells;
+        final int titleRows;
+        if (layout == XlsLayout.FORMS_AS_ROWS) {
+            cells = writeTransposed(table, writer);
+            titleRows = table.hasScopes() ? 2 : 1;
+            metrics.add(ExportCounter.ROWS, titleRows + table.getForms());
+        } else {
+            cells = writeTable(table, writer);
+            metrics.add(ExportCounter.ROWS, 1 + table.getColumns());
+        }
+        writer.flush();
+        metrics.add(ExportCounter.CELLS, cells);
+    }
+
+    /**
+     * A row for each question or variable, and a column for each form.
+     *
+     * @return the written cells.
+     */
+    private long writeTable(LayoutTable table, TableBuffer writer) throws IOException {
+        long cells = 0;
+        if (table.hasScopes()) {
+            cells += writeValue(writer, FormsLayout.VARIABLE_SCOPE_TITLE, true);
+            cells += writeValue(writer, FormsLayout.VARIABLE_LABEL_TITLE, false);
+        } else {
+            cells += writeValue(writer, FormsLayout.QUESTION_LABEL_TITLE, true);
+        }
+        for (String header : table.getHeaders()) {
+            cells += writeValue(writer, header, false);
+        }
+        writer.writeText(lineSeparator);
+
+        for (int column = 0; column < table.getColumns(); column++) {
+            if (table.hasScopes()) {
+                cells += writeValue(writer, table.getScope(column), true);
+                cells += writeValue(writer, table.getLabel(column), false);
+            } else {
+                cells += writeValue(writer, table.getLabel(column), true);
+            }
+            final ValueColumn values = table.getValues(column);
+            for (int form = 0; form < table.getForms(); form++) {
+                cells += writeValue(writer, values.get(form), false);
+            }
+            writer.writeText(lineSeparator);
+        }
+        return cells;
+    }
+
+    /**
+     * A column for each question or variable, and a row for each form.
+     *
+     * @return the written cells.
+     */
+    private long writeTransposed(LayoutTable table, TableBuffer writer) throws IOException {
+        long cells = 0;
+        if (table.hasScopes()) {
+            cells += writeValue(writer, FormsLayout.VARIABLE_SCOPE_TITLE, true);
+            for (int column = 0; column < table.getColumns(); column++) {
+                cells += writeValue(writer, table.getScope(column), false);
+            }
+            writer.writeText(lineSeparator);
+            cells += writeValue(writer, FormsLayout.VARIABLE_LABEL_TITLE, true);
+        } else {
+            cells += writeValue(writer, FormsLayout.FORM_LABEL_TITLE, true);
+        }
+        for (int column = 0; column < table.getColumns(); column++) {
+            cells += writeValue(writer, table.getLabel(column), false);
+        }
+        writer.writeText(lineSeparator);
+
+        for (int form = 0; form < table.getForms(); form++) {
+            cells += writeValue(writer, table.getHeaders().get(form), true);
+            for (int column = 0; column < table.getColumns(); column++) {
+                cells += writeValue(writer, table.getValue(column, form), false);
+            }
+            writer.writeText(lineSeparator);
+        }
+        return cells;
+    }
+
+    /**
+     * @return 1 if the value has been written, 0 if it is empty.
+     */
+    private int writeValue(TableBuffer writer, String value, boolean first) throws IOException {
+        if (!first) {
+            writer.writeByte(delimiter);
+        }
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        if (!needsEscaping(value)) {
+            writer.writeText(value);
+        } else if (quoted) {
+            writer.writeText(QUOTE_TEXT + value.replace(QUOTE_TEXT, ESCAPED_QUOTE) + QUOTE_TEXT);
+        } else {
+            writer.writeText(escape(value));
+        }
+        return 1;
+    }
+
+    private boolean needsEscaping(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char character = value.charAt(i);
+            if (character == delimiter || character == '\n' || character == '\r' || (quoted ? character == QUOTE : character == ESCAPE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * TSV: tabs, line breaks and backslashes as escape sequences.
+     */
+    private String escape(String value) {
+        final StringBuilder escaped = new StringBuilder(value.length() + 1);
+        for (int i = 0; i < value.length(); i++) {
+            final char character = value.charAt(i);
+            switch (character) {
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case ESCAPE:
+                    escaped.append("\\\\");
+                    break;
+                default:
+                    escaped.append(character);
+            }
+        }
+        return escaped.toString();
+    }
+}
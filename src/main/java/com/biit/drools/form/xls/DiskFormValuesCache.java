@@ -0,0 +1,168 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.logger.XlsExporterLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache, with a file for each form. It is limited by the total size of the files, removing the least recently used forms first. Forms
+ * cached on previous executions are reused.
+ */
+public final class DiskFormValuesCache implements FormValuesCache {
+    private static final String EXTENSION = ".values";
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Path directory;
+    private final long maxBytes;
+    // Size of each file, in access order.
+    private final Map<String, Long> sizes = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private long totalBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param directory where the files are stored. It is created if it does not exist.
+     * @param maxBytes  maximum size of all the files.
+     * @throws IOException if the directory cannot be created or read.
+     */
+    public DiskFormValuesCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        loadFiles();
+    }
+
+    private void loadFiles() throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.filter(path -> path.getFileName().toString().endsWith(EXTENSION)).forEach(files::add);
+        }
+        // Oldest first, as the least recently used.
+        files.sort(Comparator.comparingLong(file -> file.toFile().lastModified()));
+        for (Path file : files) {
+            final String name = file.getFileName().toString();
+            addSize(name.substring(0, name.length() - EXTENSION.length()), Files.size(file));
+        }
+        evict();
+    }
+
+    @Override
+    public synchronized FormValues get(String fingerprint) {
+        if (sizes.get(fingerprint) != null) {
+            try {
+                final FormValues formValues = FormValues.fromBytes(Files.readAllBytes(getFile(fingerprint)));
+                hits++;
+                return formValues;
+            } catch (IOException e) {
+                XlsExporterLog.warning(this.getClass().getName(), "Invalid cached form '" + fingerprint + "': " + e.getMessage());
+                remove(fingerprint);
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    @Override
+    public synchronized void put(String fingerprint, FormValues formValues) {
+        final byte[] bytes = formValues.toBytes();
+        if (bytes.length > maxBytes) {
+            return;
+        }
+        try {
+            final Path temporalFile = Files.createTempFile(directory, fingerprint, null);
+            try {
+                Files.write(temporalFile, bytes);
+                Files.move(temporalFile, getFile(fingerprint), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporalFile);
+            }
+        } catch (IOException e) {
+            // The cache is optional.
+            XlsExporterLog.warning(this.getClass().getName(), "Form '" + fingerprint + "' not cached: " + e.getMessage());
+            return;
+        }
+        final Long previousSize = sizes.remove(fingerprint);
+        if (previousSize != null) {
+            totalBytes -= previousSize;
+        }
+        addSize(fingerprint, bytes.length);
+        evict();
+    }
+
+    @Override
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hits, misses, evictions, sizes.size());
+    }
+
+    private void addSize(String fingerprint, long size) {
+        sizes.put(fingerprint, size);
+        totalBytes += size;
+    }
+
+    private void evict() {
+        // Iterating the entries, as a get would change the access order.
+        final Iterator<Map.Entry<String, Long>> leastRecentlyUsed = sizes.entrySet().iterator();
+        while (totalBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+            final Map.Entry<String, Long> entry = leastRecentlyUsed.next();
+            totalBytes -= entry.getValue();
+            leastRecentlyUsed.remove();
+            deleteFile(entry.getKey());
+            evictions++;
+        }
+    }
+
+    private void remove(String fingerprint) {
+        final Long size = sizes.remove(fingerprint);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteFile(fingerprint);
+    }
+
+    private void deleteFile(String fingerprint) {
+        try {
+            Files.deleteIfExists(getFile(fingerprint));
+        } catch (IOException e) {
+            XlsExporterLog.warning(this.getClass().getName(), "Cached form '" + fingerprint + "' cannot be removed: " + e.getMessage());
+        }
+    }
+
+    private Path getFile(String fingerprint) {
+        return directory.resolve(fingerprint + EXTENSION);
+    }
+}
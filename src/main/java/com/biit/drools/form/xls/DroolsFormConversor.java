@@ -21,60 +21,54 @@ package com.biit.drools.form.xls;
  * #L%
  */
 
-import com.biit.drools.form.DroolsSubmittedCategory;
 import com.biit.drools.form.DroolsSubmittedForm;
-import com.biit.drools.form.DroolsSubmittedQuestion;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
 import com.biit.drools.form.xls.logger.XlsExporterLog;
-import com.biit.form.submitted.implementation.SubmittedObject;
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
-import org.apache.poi.hssf.usermodel.HSSFPalette;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.hssf.util.HSSFColor;
-import org.apache.poi.hssf.util.HSSFColor.HSSFColorPredefined;
-import org.apache.poi.ss.usermodel.BorderStyle;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.FillPatternType;
-import org.apache.poi.ss.usermodel.Font;
-import org.apache.poi.ss.usermodel.HorizontalAlignment;
-import org.apache.poi.ss.usermodel.IndexedColors;
-import org.apache.poi.ss.usermodel.VerticalAlignment;
-
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
+/**
+ * Converts a list of submitted forms into a workbook. The layout of every sheet is computed before any cell is written, so rows are always created in
+ * ascending order and the same code can be used with an {@link org.apache.poi.hssf.usermodel.HSSFWorkbook} or with a streaming
+ * {@link org.apache.poi.xssf.streaming.SXSSFWorkbook}. If the forms do not fit in one sheet due to the limits of the format, they are split on several
+ * sheets.
+ * <p>
+ * The conversor has no state of its own: everything related to one export is kept on an {@link ExportContext}, therefore the same instance can be used
+ * by several threads at once.
+ * <p>
+ * Appendable documents keep a hidden {@link ExportIndex}, so new forms can be added later to the existing sheets without converting again the forms
+ * already exported.
+ * <p>
+ * The time of each {@link ExportPhase} and the {@link ExportCounter}s of the export are collected on its {@link ExportMetrics}. Each sheet and
+ * each resizing of its columns is also recorded as a Flight Recorder event ({@link SheetEvent}, {@link ResizeColumnsEvent}).
+ */
 public class DroolsFormConversor {
-    private static final String[] COLUMNS_NAMES = {"A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "M", "N", "O", "P", "Q", "R", "S", "T", "U",
-            "V", "W", "X", "Y", "Z"};
-    private static final String QUESTION_LABEL_TITLE = "Question";
-    private static final String VARIABLE_LABEL_TITLE = "Variables";
-    private static final String VARIABLE_SCOPE_TITLE = "Scope";
-    private static final int TITLE_FONT_SIZE = 14;
-    private static final int ANSWER_LABEL_FONT_SIZE = 12;
-    private static final double DEFAULT_ROW_EIGHT = (20 * ANSWER_LABEL_FONT_SIZE * 1.5);
+    private static final double DEFAULT_ROW_EIGHT = (20 * ExportContext.ANSWER_LABEL_FONT_SIZE * 1.5);
     private static final int QUESTION_LABEL_WIDTH = 256 * 50;
     private static final int VARIABLE_LABEL_WIDTH = 128 * 50;
-    private static final String VARIABLES_SHEET_NAME = "Variables";
-
-    private static final byte GREY_50_PERCENT = (byte) 0xA0;
-    private static final byte GREY_25_PERCENT = (byte) 0xEE;
-    private static final byte RED_R = (byte) 0xEE;
-    private static final byte RED_G = (byte) 0xAA;
-    private static final byte RED_B = (byte) 0xAA;
-    private static final byte PINK_R = (byte) 0xF2;
-    private static final byte PINK_G = (byte) 0x0D;
-    private static final byte PINK_B = (byte) 0x5E;
-
-    private static final NumberFormat DECIMAL_FORMAT = new DecimalFormat("##.###");
+    private static final String SHEET_PAGE_FORMAT = " (%d)";
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final String NO_DATA = "         ";
 
@@ -82,347 +76,958 @@ public class DroolsFormConversor {
     private static final int VARIABLE_LABEL_COLUMN = 2;
     private static final int VARIABLE_SCOPE_COLUMN = 1;
     private static final int TITLE_ROW = 1;
-    private static final String ANSWER_SEPARATOR = ", ";
+    private static final int TRANSPOSED_HEADER_COLUMN = 1;
+
+    private final XlsLayout layout;
+    private final ColumnWidthStrategy columnWidthStrategy;
+    private final int parallelism;
+    private final boolean appendable;
+    private final FormValuesCache formValuesCache;
+    private final Path spillDirectory;
+
+    public DroolsFormConversor() {
+        this(XlsLayout.FORMS_AS_COLUMNS);
+    }
 
-    private final Map<String, Map<String, Integer>> questionRowNumber = new HashMap<>();
-    private final Map<String, Integer> variableRowNumber = new HashMap<>();
-    private final Map<String, HSSFRow> questionRow = new HashMap<>();
-    private final Map<String, HSSFRow> variableRow = new HashMap<>();
-    private final Map<String, HSSFSheet> categorySheet = new HashMap<>();
+    public DroolsFormConversor(XlsLayout layout) {
+        this(layout, ColumnWidthStrategy.ESTIMATED);
+    }
 
-    private HSSFCellStyle titleStyle = null;
-    private HSSFCellStyle answerStyle = null;
-    private HSSFCellStyle contentStyle = null;
+    public DroolsFormConversor(XlsLayout layout, ColumnWidthStrategy columnWidthStrategy) {
+        this(layout, columnWidthStrategy, 1);
+    }
 
-    public void createXlsDocument(HSSFWorkbook workbook, List<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders) {
-        // Override colors
-        setColor(workbook, HSSFColorPredefined.GREY_50_PERCENT, GREY_50_PERCENT, GREY_50_PERCENT, GREY_50_PERCENT);
-        setColor(workbook, HSSFColorPredefined.GREY_25_PERCENT, GREY_25_PERCENT, GREY_25_PERCENT, GREY_25_PERCENT);
-        setColor(workbook, HSSFColorPredefined.RED, RED_R, RED_G, RED_B);
-        setColor(workbook, HSSFColorPredefined.PINK, PINK_R, PINK_G, PINK_B);
+    /**
+     * @param layout              orientation of the forms.
+     * @param columnWidthStrategy how the width of the columns is calculated.
+     * @param parallelism         number of threads used to extract the values of the forms. The workbook is always written by a single thread.
+     */
+    public DroolsFormConversor(XlsLayout layout, ColumnWidthStrategy columnWidthStrategy, int parallelism) {
+        this(layout, columnWidthStrategy, parallelism, false);
+    }
 
-        createAnswersTables(workbook, droolsSubmittedForms, formHeaders);
+    /**
+     * @param layout              orientation of the forms.
+     * @param columnWidthStrategy how the width of the columns is calculated.
+     * @param parallelism         number of threads used to extract the values of the forms. The workbook is always written by a single thread.
+     * @param appendable          if true, new documents keep the information needed to append forms later with
+     *                            {@link #appendToXlsDocument(Workbook, Iterator, List)}.
+     */
+    public DroolsFormConversor(XlsLayout layout, ColumnWidthStrategy columnWidthStrategy, int parallelism, boolean appendable) {
+        this(layout, columnWidthStrategy, parallelism, appendable, null);
+    }
 
-        createVariableTables(workbook, droolsSubmittedForms, formHeaders);
+    /**
+     * @param layout              orientation of the forms.
+     * @param columnWidthStrategy how the width of the columns is calculated.
+     * @param parallelism         number of threads used to extract the values of the forms. The workbook is always written by a single thread.
+     * @param appendable          if true, new documents keep the information needed to append forms later with
+     *                            {@link #appendToXlsDocument(Workbook, Iterator, List)}.
+     * @param formValuesCache     optional cache of the values of the forms, shared with other exports. Can be null.
+     */
+    public DroolsFormConversor(XlsLayout layout, ColumnWidthStrategy columnWidthStrategy, int parallelism, boolean appendable,
+                               FormValuesCache formValuesCache) {
+        this(layout, columnWidthStrategy, parallelism, appendable, formValuesCache, null);
     }
 
-    public static String getColumnName(int index) {
-        if (index < COLUMNS_NAMES.length) {
-            return COLUMNS_NAMES[index];
-        } else {
-            return COLUMNS_NAMES[index / COLUMNS_NAMES.length - 1] + COLUMNS_NAMES[index % COLUMNS_NAMES.length];
+    /**
+     * @param layout              orientation of the forms.
+     * @param columnWidthStrategy how the width of the columns is calculated.
+     * @param parallelism         number of threads used to extract the values of the forms. The workbook is always written by a single thread.
+     * @param appendable          if true, new documents keep the information needed to append forms later with
+     *                            {@link #appendToXlsDocument(Workbook, Iterator, List)}.
+     * @param formValuesCache     optional cache of the values of the forms, shared with other exports. Can be null.
+     * @param spillDirectory      optional folder where the values of the forms are kept, on a memory-mapped file, until the sheets are written.
+     *                            If null, they are kept on the heap.
+     */
+    public DroolsFormConversor(XlsLayout layout, ColumnWidthStrategy columnWidthStrategy, int parallelism, boolean appendable,
+                               FormValuesCache formValuesCache, Path spillDirectory) {
+        this.layout = layout;
+        this.columnWidthStrategy = columnWidthStrategy;
+        this.parallelism = parallelism;
+        this.appendable = appendable;
+        this.formValuesCache = formValuesCache;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public void createXlsDocument(Workbook workbook, List<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders)
+            throws InvalidXlsElementException {
+        createXlsDocument(workbook, droolsSubmittedForms.iterator(), formHeaders);
+    }
+
+    /**
+     * Creates the document reading the forms one by one. Only the texts to write are kept for each form, therefore the forms can be parsed
+     * while they are read (see {@link SubmittedFormReader}) and discarded as soon as they are processed.
+     *
+     * @param workbook             where the sheets are created.
+     * @param droolsSubmittedForms the forms to export.
+     * @param formHeaders          optional header of each form, in the same order.
+     * @throws InvalidXlsElementException if a form cannot be read or the document cannot be created.
+     */
+    public void createXlsDocument(Workbook workbook, Iterator<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders)
+            throws InvalidXlsElementException {
+        createXlsDocument(workbook, droolsSubmittedForms, formHeaders, new ExportMetrics());
+    }
+
+    /**
+     * Creates the document, measuring each phase of the export.
+     *
+     * @param metrics where the time and counters of the export are added.
+     */
+    void createXlsDocument(Workbook workbook, Iterator<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders, ExportMetrics metrics)
+            throws InvalidXlsElementException {
+        final ExportContext context = new ExportContext(workbook, metrics);
+        try (FormsLayout formsLayout = createLayout(droolsSubmittedForms, formHeaders, metrics)) {
+            if (appendable) {
+                checkIndexSize(workbook, ExportIndex.FIRST_RECORD_ROW, formsLayout, 0, 0);
+            }
+            metrics.startPhase(ExportPhase.WRITE_CELLS);
+            for (AnswersSheetLayout sheetLayout : formsLayout.getSheets()) {
+                createAnswersSheets(context, sheetLayout, formsLayout.getHeaders(), 0);
+            }
+            if (formsLayout.hasVariables()) {
+                createVariablesSheets(context, formsLayout.getVariableRows(), formsLayout.getHeaders(), 0, 0);
+            }
+
+            if (appendable) {
+                metrics.startPhase(ExportPhase.WRITE_INDEX);
+                updateIndex(ExportIndex.create(context, layout, formsLayout.hasVariables()), formsLayout, 0, 0);
+            }
         }
+        metrics.startPhase(null);
     }
 
-    private void createAnswersTables(HSSFWorkbook workbook, List<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders) {
-        for (int i = 0; i < droolsSubmittedForms.size(); i++) {
-            for (DroolsSubmittedCategory category : droolsSubmittedForms.get(i).getAllChildrenInHierarchy(DroolsSubmittedCategory.class)) {
-                if (!category.getAllChildrenInHierarchy(DroolsSubmittedQuestion.class).isEmpty()) {
-                    final HSSFSheet sheet = getSheet(workbook, droolsSubmittedForms.get(i), category);
+    /**
+     * Creates a document for each category, and one more for the variables. Each document is given to the consumer once completed, so only
+     * one of them is in memory at the same time. Documents are not appendable.
+     *
+     * @param droolsSubmittedForms the forms to export.
+     * @param formHeaders          optional header of each form, in the same order.
+     * @param metrics              where the time and counters of the export are added.
+     * @param consumer             creates the workbooks and receives them once completed.
+     * @throws InvalidXlsElementException if a form cannot be read or a document cannot be created.
+     */
+    void createXlsDocumentsByCategory(Iterator<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders, ExportMetrics metrics,
+                                      WorkbookConsumer consumer) throws InvalidXlsElementException {
+        try (FormsLayout formsLayout = createLayout(droolsSubmittedForms, formHeaders, metrics)) {
+            for (AnswersSheetLayout sheetLayout : formsLayout.getSheets()) {
+                metrics.startPhase(ExportPhase.WRITE_CELLS);
+                final ExportContext context = new ExportContext(consumer.createWorkbook(), metrics);
+                createAnswersSheets(context, sheetLayout, formsLayout.getHeaders(), 0);
+                consumer.accept(sheetLayout.getSheetName(), context.getWorkbook());
+            }
+            if (formsLayout.hasVariables()) {
+                metrics.startPhase(ExportPhase.WRITE_CELLS);
+                final ExportContext context = new ExportContext(consumer.createWorkbook(), metrics);
+                createVariablesSheets(context, formsLayout.getVariableRows(), formsLayout.getHeaders(), 0, 0);
+                consumer.accept(FormsLayout.VARIABLES_SHEET_NAME, context.getWorkbook());
+            }
+        }
+        metrics.startPhase(null);
+    }
 
-                    // Create title
-                    createAnswersTitle(workbook, sheet, droolsSubmittedForms, formHeaders);
+    /**
+     * Reads the forms and collects the sheets and rows of all of them. The layout is the same for any format of the document.
+     */
+    FormsLayout createLayout(Iterator<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders, ExportMetrics metrics)
+            throws InvalidXlsElementException {
+        // Headers are shared by all sheets.
+        final List<String> headers = new ArrayList<>();
 
-                    // Create answer rows
-                    for (DroolsSubmittedQuestion child : category.getAllChildrenInHierarchy(DroolsSubmittedQuestion.class)) {
-                        createRow(workbook, sheet, category, child, i + 1);
-                    }
-                    try {
-                        sheet.autoSizeColumn(getFormResultColumn(i + 1));
-                        sheet.autoSizeColumn(QUESTION_LABEL_COLUMN);
-                    } catch (NullPointerException e) {
-                        // Font not available.
-                    }
-                }
+        metrics.startPhase(ExportPhase.LAYOUT);
+        final FormsLayout formsLayout = createLayout(headers);
+        boolean added = false;
+        try {
+            addForms(droolsSubmittedForms, formHeaders, formsLayout, metrics);
+            added = true;
+        } finally {
+            if (!added) {
+                formsLayout.close();
             }
         }
+        addLayoutCounters(formsLayout, metrics);
+        return formsLayout;
     }
 
-    private HSSFSheet getSheet(HSSFWorkbook workbook, DroolsSubmittedForm droolsSubmittedForm, DroolsSubmittedCategory category) {
-        if (categorySheet.get(droolsSubmittedForm.getText() + "_" + category.getName()) == null) {
-            final HSSFSheet sheet = workbook.createSheet(parseInvalidCharacters(category.getText()));
-            sheet.setDefaultRowHeight((short) DEFAULT_ROW_EIGHT);
-            categorySheet.put(droolsSubmittedForm.getText() + "_" + category.getName(), sheet);
+    private FormsLayout createLayout(List<String> headers) throws InvalidXlsElementException {
+        try {
+            return new FormsLayout(headers, spillDirectory);
+        } catch (IOException e) {
+            throw new InvalidXlsElementException(e);
         }
-        return categorySheet.get(droolsSubmittedForm.getText() + "_" + category.getName());
     }
 
-    private HSSFSheet getVariablesSheet(HSSFWorkbook workbook, DroolsSubmittedForm droolsSubmittedForm) {
-        if (categorySheet.get(VARIABLES_SHEET_NAME) == null) {
-            final HSSFSheet sheet = workbook.createSheet(parseInvalidCharacters(VARIABLES_SHEET_NAME));
-            sheet.setDefaultRowHeight((short) DEFAULT_ROW_EIGHT);
-            categorySheet.put(VARIABLES_SHEET_NAME, sheet);
+    /**
+     * Adds new forms to a document generated as appendable. Only the new forms are converted: new columns (or rows, depending on the layout) are
+     * added to the existing sheets, new questions and variables are added after the existing ones, and new sheets are created when needed. The
+     * cells are the same as converting again all the forms. Only the width of the columns, that is never reduced, and the position of new
+     * sheets, always added at the end, can be different.
+     *
+     * @param workbook             an existing document, read as a {@link org.apache.poi.hssf.usermodel.HSSFWorkbook} or a
+     *                             {@link org.apache.poi.xssf.usermodel.XSSFWorkbook}. Streaming workbooks cannot modify written rows.
+     * @param droolsSubmittedForms the new forms.
+     * @param formHeaders          optional header of each new form, in the same order.
+     * @throws InvalidXlsElementException if the document is not appendable, has a different layout or the forms cannot be added.
+     */
+    public void appendToXlsDocument(Workbook workbook, Iterator<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders)
+            throws InvalidXlsElementException {
+        appendToXlsDocument(workbook, droolsSubmittedForms, formHeaders, new ExportMetrics());
+    }
+
+    /**
+     * Adds new forms to a document, measuring each phase of the export.
+     *
+     * @param metrics where the time and counters of the export are added.
+     */
+    void appendToXlsDocument(Workbook workbook, Iterator<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders, ExportMetrics metrics)
+            throws InvalidXlsElementException {
+        metrics.startPhase(ExportPhase.READ_DOCUMENT);
+        final ExportIndex index = ExportIndex.read(workbook, metrics);
+        if (index.getLayout() != layout) {
+            throw new InvalidXlsElementException("The document has layout '" + index.getLayout() + "' and cannot be appended as '" + layout + "'.");
         }
-        return categorySheet.get(VARIABLES_SHEET_NAME);
+        final ExportContext context = index.getContext();
+
+        final List<String> headers = new ArrayList<>(index.getHeaders());
+        final int writtenForms = headers.size();
+
+        // Rows already on the document
+        metrics.startPhase(ExportPhase.LAYOUT);
+        try (FormsLayout formsLayout = createLayout(headers)) {
+            for (Map.Entry<CompositeKey, ExportIndex.IndexedSheet> indexedSheet : index.getSheets().entrySet()) {
+                final AnswersSheetLayout sheetLayout = formsLayout.addSheet(indexedSheet.getKey(), indexedSheet.getValue().getName());
+                for (ExportIndex.IndexedQuestion question : indexedSheet.getValue().getQuestions()) {
+                    sheetLayout.getRow(question.getXpath(), question.getLabel(), formsLayout);
+                }
+                sheetLayout.setWritten();
+            }
+            for (ExportIndex.IndexedVariable variable : index.getVariables()) {
+                formsLayout.addVariable(new CompositeKey(variable.getXpath(), variable.getKey()), variable.getKey(), variable.getScope());
+            }
+            final int writtenVariables = formsLayout.getVariableRows().size();
+
+            formsLayout.setVariables(index.hasVariables());
+            addForms(droolsSubmittedForms, formHeaders, formsLayout, metrics);
+            addLayoutCounters(formsLayout, metrics);
+            checkIndexSize(workbook, index.getRecords(), formsLayout, writtenForms, writtenVariables);
+
+            metrics.startPhase(ExportPhase.WRITE_CELLS);
+            for (AnswersSheetLayout sheetLayout : formsLayout.getSheets()) {
+                createAnswersSheets(context, sheetLayout, headers, sheetLayout.isWritten() ? writtenForms : 0);
+            }
+            if (formsLayout.hasVariables()) {
+                createVariablesSheets(context, formsLayout.getVariableRows(), headers, index.hasVariables() ? writtenForms : 0, writtenVariables);
+            }
+
+            metrics.startPhase(ExportPhase.WRITE_INDEX);
+            index.setVariables(formsLayout.hasVariables());
+            updateIndex(index, formsLayout, writtenForms, writtenVariables);
+        } catch (UncheckedIOException e) {
+            throw new InvalidXlsElementException(e.getCause());
+        }
+        metrics.startPhase(null);
     }
 
-    private String parseInvalidCharacters(String text) {
-        // Sheets does not allows this characters.
-        return text.replace(":", "").replace("\\", "-").replace("/", "-").replace("*", "").replace("?", "").replace("[", "(").replace("]", ")");
+    /**
+     * Checks, before writing any cell, that the index has room for one row for each form, sheet and row that is not on it yet. The index can be
+     * larger than the sheets of the forms, as it has a row for each form and for each question of every sheet.
+     *
+     * @param indexRecords records already on the index.
+     * @throws InvalidXlsElementException if the format does not allow so many rows.
+     */
+    void checkIndexSize(Workbook workbook, int indexRecords, FormsLayout formsLayout, int writtenForms, int writtenVariables)
+            throws InvalidXlsElementException {
+        int records = indexRecords + formsLayout.getHeaders().size() - writtenForms;
+        for (AnswersSheetLayout sheetLayout : formsLayout.getSheets()) {
+            records += (sheetLayout.isWritten() ? 0 : 1) + sheetLayout.getRows().size() - sheetLayout.getWrittenRows();
+        }
+        records += formsLayout.getVariableRows().size() - writtenVariables;
+        checkSheetSize(ExportIndex.SHEET_NAME, "rows", records, workbook.getSpreadsheetVersion().getMaxRows());
     }
 
-    private void createAnswersTitle(HSSFWorkbook workbook, HSSFSheet sheet, List<DroolsSubmittedForm> forms, List<String> formHeaders) {
-        final HSSFRow titleRow = sheet.createRow(TITLE_ROW);
-        titleRow.createCell(QUESTION_LABEL_COLUMN).setCellValue(QUESTION_LABEL_TITLE);
-        titleRow.getCell(QUESTION_LABEL_COLUMN).setCellStyle(getTitleStyle(workbook));
-        sheet.setColumnWidth(QUESTION_LABEL_COLUMN, QUESTION_LABEL_WIDTH);
+    /**
+     * Records on the index the forms, sheets and rows that were not on it yet.
+     */
+    private void updateIndex(ExportIndex index, FormsLayout formsLayout, int writtenForms, int writtenVariables) {
+        final List<String> headers = formsLayout.getHeaders();
+        for (int i = writtenForms; i < headers.size(); i++) {
+            index.addHeader(headers.get(i));
+        }
+        for (int sheet = 0; sheet < formsLayout.getSheets().size(); sheet++) {
+            final AnswersSheetLayout sheetLayout = formsLayout.getSheets().get(sheet);
+            final CompositeKey sheetKey = formsLayout.getSheetKey(sheet);
+            if (!sheetLayout.isWritten()) {
+                index.addSheet(sheetKey, sheetLayout.getSheetName());
+            }
+            final List<QuestionRowLayout> rows = sheetLayout.getRows();
+            for (int i = sheetLayout.getWrittenRows(); i < rows.size(); i++) {
+                index.addQuestion(sheetKey, rows.get(i).getXpath(), rows.get(i).getLabel());
+            }
+        }
+        final List<VariableRowLayout> variableRows = formsLayout.getVariableRows();
+        for (int row = writtenVariables; row < variableRows.size(); row++) {
+            index.addVariable(formsLayout.getVariableKey(row).getFirst(), variableRows.get(row).getKey(), variableRows.get(row).getScope());
+        }
+    }
+
+    /**
+     * Name of a column (A, B, ..., Z, AA, AB, ..., XFD).
+     *
+     * @param index zero based column index.
+     * @return the name of the column.
+     */
+    public static String getColumnName(int index) {
+        return CellReference.convertNumToColString(index);
+    }
 
-        for (int i = 0; i < forms.size(); i++) {
-            if (formHeaders != null && i < formHeaders.size()) {
-                titleRow.createCell(getFormResultColumn(i) + 1).setCellValue(formHeaders.get(i));
-            } else if (forms.get(i).getSubmittedBy() != null) {
-                titleRow.createCell(getFormResultColumn(i) + 1).setCellValue(forms.get(i).getSubmittedBy());
-            } else if (forms.get(i).getSubmittedAt() != null) {
-                titleRow.createCell(getFormResultColumn(i) + 1).setCellValue(forms.get(i).getSubmittedAt().format(DATE_TIME_FORMATTER));
+    /**
+     * Reads the forms and adds the texts of each one to the layout, in the same order. With a parallelism greater than one, the forms are processed
+     * concurrently on a dedicated pool. Only a few forms are pending at the same time, and each form is added to the layout as soon as the previous
+     * ones have been added, so neither the forms nor their values are kept in memory.
+     *
+     * @param droolsSubmittedForms the forms to export.
+     * @param formHeaders          header of each form defined by the user.
+     * @param formsLayout          where the header and the values of each form are added.
+     * @param metrics              where the time and counters of the export are added.
+     */
+    private void addForms(Iterator<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders, FormsLayout formsLayout, ExportMetrics metrics)
+            throws InvalidXlsElementException {
+        final List<String> headers = formsLayout.getHeaders();
+        // The headers defined by the user are only for the new forms, after the ones already on the document.
+        final int firstForm = headers.size();
+        final ExportPlans plans = new ExportPlans();
+        final VariableCatalog catalog = new VariableCatalog();
+        metrics.startPhase(ExportPhase.READ_FORMS);
+        try {
+            if (parallelism <= 1) {
+                while (droolsSubmittedForms.hasNext()) {
+                    checkInterrupted();
+                    final DroolsSubmittedForm droolsSubmittedForm = droolsSubmittedForms.next();
+                    headers.add(getFormHeader(droolsSubmittedForm, headers.size() - firstForm, formHeaders));
+                    addToLayout(formsLayout, extract(droolsSubmittedForm, plans, catalog), headers.size() - 1, metrics);
+                }
             } else {
-                titleRow.createCell(getFormResultColumn(i) + 1).setCellValue(NO_DATA);
+                addFormsConcurrently(droolsSubmittedForms, formHeaders, formsLayout, plans, catalog, metrics);
             }
-            titleRow.getCell(getFormResultColumn(i) + 1).setCellStyle(getTitleStyle(workbook));
-            try {
-                sheet.autoSizeColumn(getFormResultColumn(i) + 1);
-            } catch (NullPointerException e) {
-                // Font not available.
+        } catch (UncheckedIOException e) {
+            throw new InvalidXlsElementException(e.getCause());
+        }
+        metrics.add(ExportCounter.EXPORT_PLANS, plans.size());
+        metrics.add(ExportCounter.VARIABLE_SCHEMAS, catalog.size());
+    }
+
+    /**
+     * Reads the forms on a dedicated pool. The values of the oldest pending form are added to the layout once there are two pending forms for each
+     * thread. Forms from a {@link SubmittedFormReader} are also parsed on the pool, only their sources are read in order on the calling thread;
+     * other forms are taken from the iterator on the calling thread.
+     */
+    private void addFormsConcurrently(Iterator<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders, FormsLayout formsLayout,
+                                      ExportPlans plans, VariableCatalog catalog, ExportMetrics metrics) throws InvalidXlsElementException {
+        final List<String> headers = formsLayout.getHeaders();
+        final int firstForm = headers.size();
+        final SubmittedFormReader.UnparsedForms unparsedForms = droolsSubmittedForms instanceof SubmittedFormReader.UnparsedForms
+                ? (SubmittedFormReader.UnparsedForms) droolsSubmittedForms : null;
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final Deque<Future<ReadForm>> tasks = new ArrayDeque<>();
+            int nextForm = firstForm;
+            while (droolsSubmittedForms.hasNext()) {
+                checkInterrupted();
+                final Supplier<DroolsSubmittedForm> droolsSubmittedForm;
+                if (unparsedForms != null) {
+                    droolsSubmittedForm = unparsedForms.nextUnparsed();
+                } else {
+                    final DroolsSubmittedForm form = droolsSubmittedForms.next();
+                    droolsSubmittedForm = () -> form;
+                }
+                final int index = headers.size() - firstForm;
+                // The header depends on the form, and is set once it has been parsed.
+                headers.add(null);
+                tasks.add(pool.submit(() -> {
+                    final DroolsSubmittedForm form = droolsSubmittedForm.get();
+                    return new ReadForm(getFormHeader(form, index, formHeaders), extract(form, plans, catalog));
+                }));
+                if (tasks.size() >= parallelism * 2) {
+                    addToLayout(formsLayout, tasks.poll().get(), nextForm++, metrics);
+                }
             }
+            while (!tasks.isEmpty()) {
+                addToLayout(formsLayout, tasks.poll().get(), nextForm++, metrics);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvalidXlsElementException(e);
+        } catch (ExecutionException e) {
+            // Same error as when the form is parsed on the calling thread.
+            throw new InvalidXlsElementException(e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void addToLayout(FormsLayout formsLayout, ReadForm readForm, int form, ExportMetrics metrics) {
+        formsLayout.getHeaders().set(form, readForm.header);
+        addToLayout(formsLayout, readForm.values, form, metrics);
+    }
+
+    /**
+     * Adds the values of a form to the layout. The time is measured as layout, and reading the forms is resumed afterwards.
+     */
+    private void addToLayout(FormsLayout formsLayout, FormValues formValues, int form, ExportMetrics metrics) {
+        metrics.startPhase(ExportPhase.LAYOUT);
+        formsLayout.add(formValues, form);
+        metrics.increment(ExportCounter.FORMS);
+        metrics.startPhase(ExportPhase.READ_FORMS);
+    }
+
+    /**
+     * Values of a form, from the cache if the same content has already been exported.
+     */
+    private FormValues extract(DroolsSubmittedForm droolsSubmittedForm, ExportPlans plans, VariableCatalog catalog) {
+        final FormIndex formIndex = FormIndex.of(droolsSubmittedForm);
+        if (formValuesCache == null) {
+            return FormValues.extract(formIndex, plans, catalog);
         }
+        final String fingerprint = FormFingerprint.of(formIndex);
+        FormValues formValues = formValuesCache.get(fingerprint);
+        if (formValues == null) {
+            formValues = FormValues.extract(formIndex, plans, catalog);
+            formValuesCache.put(fingerprint, formValues);
+        }
+        return formValues;
     }
 
+    /**
+     * Adds the texts of the dictionary and the size of the spill file of the layout to the metrics.
+     */
+    private void addLayoutCounters(FormsLayout formsLayout, ExportMetrics metrics) {
+        metrics.add(ExportCounter.SPILLED_BYTES, formsLayout.getSpilledBytes());
+        final StringDictionary dictionary = formsLayout.getDictionary();
+        metrics.add(ExportCounter.STRINGS, dictionary.size());
+        metrics.add(ExportCounter.DEDUPLICATED_STRINGS, dictionary.getDeduplicated());
+    }
 
-    private void createVariableTables(HSSFWorkbook workbook, List<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders) {
-        for (int i = 0; i < droolsSubmittedForms.size(); i++) {
-            if (droolsSubmittedForms.get(i).getVariablesValue() != null) {
-                final HSSFSheet sheet = getVariablesSheet(workbook, droolsSubmittedForms.get(i));
+    /**
+     * Writes the pages of an answers sheet. Pages with forms already written are completed with the new forms and rows, other pages are created.
+     *
+     * @param writtenForms forms already on the document (0 for new sheets).
+     */
+    private void createAnswersSheets(ExportContext context, AnswersSheetLayout sheetLayout, List<String> headers, int writtenForms)
+            throws InvalidXlsElementException {
+        final SpreadsheetVersion version = context.getWorkbook().getSpreadsheetVersion();
+        final int formsPerSheet;
+        if (layout == XlsLayout.FORMS_AS_ROWS) {
+            checkSheetSize(sheetLayout.getSheetName(), "columns", TRANSPOSED_HEADER_COLUMN + 1 + sheetLayout.getRows().size(), version.getMaxColumns());
+            formsPerSheet = version.getMaxRows() - (TITLE_ROW + 1);
+        } else {
+            checkSheetSize(sheetLayout.getSheetName(), "rows", TITLE_ROW + 1 + sheetLayout.getRows().size(), version.getMaxRows());
+            formsPerSheet = version.getMaxColumns() - (QUESTION_LABEL_COLUMN + 1);
+        }
 
-                // Create title
-                createVariablesTitle(workbook, sheet, droolsSubmittedForms, formHeaders);
+        for (int page = 0; page * formsPerSheet < headers.size(); page++) {
+            final int firstForm = page * formsPerSheet;
+            final int lastForm = Math.min(firstForm + formsPerSheet, headers.size());
+            final String sheetName = getPageName(sheetLayout.getSheetName(), page);
+            checkInterrupted();
+            final SheetEvent event = new SheetEvent();
+            final long cells = context.getMetrics().get(ExportCounter.CELLS);
+            event.begin();
+            if (firstForm >= writtenForms) {
+                final Sheet sheet = createSheet(context, sheetName);
+                if (layout == XlsLayout.FORMS_AS_ROWS) {
+                    createTransposedAnswersTable(context, sheet, sheetLayout, headers, firstForm, lastForm);
+                } else {
+                    createAnswersTable(context, sheet, sheetLayout, headers, firstForm, lastForm);
+                }
+            } else if (lastForm > writtenForms || sheetLayout.getRows().size() > sheetLayout.getWrittenRows()) {
+                final Sheet sheet = getWrittenSheet(context, sheetName);
+                if (layout == XlsLayout.FORMS_AS_ROWS) {
+                    appendTransposedAnswersTable(context, sheet, sheetLayout, headers, firstForm, lastForm, writtenForms);
+                } else {
+                    appendAnswersTable(context, sheet, sheetLayout, headers, firstForm, lastForm, writtenForms);
+                }
+            }
+            event.end();
+            event.commit(sheetName, lastForm - Math.max(firstForm, writtenForms), context.getMetrics().get(ExportCounter.CELLS) - cells);
+        }
+    }
 
-                //Sort the xpaths
-                final SortedSet<String> xpaths = new TreeSet<>(droolsSubmittedForms.get(i).getFormVariables().keySet());
+    /**
+     * Stops the export if the thread has been interrupted, as when an asynchronous export is cancelled.
+     */
+    static void checkInterrupted() throws InvalidXlsElementException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InvalidXlsElementException("The export has been interrupted.");
+        }
+    }
 
-                //Sort the variables
-                for (String xpath : xpaths) {
-                    final SortedSet<String> keys = new TreeSet<>(droolsSubmittedForms.get(i).getFormVariables().get(xpath).keySet());
+    private Sheet getWrittenSheet(ExportContext context, String sheetName) throws InvalidXlsElementException {
+        final Sheet sheet = context.getWorkbook().getSheet(sheetName);
+        if (sheet == null) {
+            throw new InvalidXlsElementException("Sheet '" + sheetName + "' not found on the document.");
+        }
+        return sheet;
+    }
+
+    private void createAnswersTable(ExportContext context, Sheet sheet, AnswersSheetLayout sheetLayout, List<String> headers, int firstForm, int lastForm) {
+        final ColumnWidths columnWidths = new ColumnWidths();
 
-                    final SubmittedObject scopeElement = droolsSubmittedForms.get(i).getElement(xpath);
+        // Create title
+        createAnswersTitle(context, sheet, headers, firstForm, lastForm, columnWidths);
 
-                    // Set the variables
-                    for (String key : keys) {
-                        createVariableRow(workbook, sheet,
-                                xpath,
-                                key, String.valueOf(droolsSubmittedForms.get(i).getFormVariables().get(xpath).get(key)),
-                                (scopeElement != null ? scopeElement.getText() : droolsSubmittedForms.get(i).getName()),
-                                i + 1);
-                    }
+        // Create answer rows
+        int rowNumber = TITLE_ROW + 1;
+        for (QuestionRowLayout rowLayout : sheetLayout.getRows()) {
+            final Row row = createRow(context, sheet, rowNumber++);
+            setLabelCell(context, row, QUESTION_LABEL_COLUMN, rowLayout.getLabel(), columnWidths);
+            for (int i = firstForm; i < lastForm; i++) {
+                if (rowLayout.getAnswer(i) != null) {
+                    setCellValue(context, row, getFormResultColumn(i - firstForm + 1), rowLayout.getAnswer(i), columnWidths);
                 }
             }
         }
+
+        resizeColumns(context, sheet, columnWidths, QUESTION_LABEL_COLUMN, getFormResultColumn(lastForm - firstForm));
     }
 
-    private void createVariablesTitle(HSSFWorkbook workbook, HSSFSheet sheet, List<DroolsSubmittedForm> forms, List<String> formHeaders) {
-        final HSSFRow titleRow = sheet.createRow(TITLE_ROW);
+    private void createTransposedAnswersTable(ExportContext context, Sheet sheet, AnswersSheetLayout sheetLayout, List<String> headers, int firstForm,
+                                              int lastForm) {
+        final ColumnWidths columnWidths = new ColumnWidths();
 
-        titleRow.createCell(VARIABLE_SCOPE_COLUMN).setCellValue(VARIABLE_SCOPE_TITLE);
-        titleRow.getCell(VARIABLE_SCOPE_COLUMN).setCellStyle(getTitleStyle(workbook));
-        sheet.setColumnWidth(VARIABLE_SCOPE_COLUMN, VARIABLE_LABEL_WIDTH);
+        // Create title
+        final Row titleRow = createRow(context, sheet, TITLE_ROW);
+        setTitleCell(context, titleRow, TRANSPOSED_HEADER_COLUMN, FormsLayout.FORM_LABEL_TITLE, columnWidths);
+        int column = TRANSPOSED_HEADER_COLUMN + 1;
+        for (QuestionRowLayout rowLayout : sheetLayout.getRows()) {
+            setTitleCell(context, titleRow, column, rowLayout.getLabel(), columnWidths);
+            column++;
+        }
 
-        titleRow.createCell(VARIABLE_LABEL_COLUMN).setCellValue(VARIABLE_LABEL_TITLE);
-        titleRow.getCell(VARIABLE_LABEL_COLUMN).setCellStyle(getTitleStyle(workbook));
-        sheet.setColumnWidth(VARIABLE_LABEL_COLUMN, VARIABLE_LABEL_WIDTH);
+        // Create one row by form
+        for (int i = firstForm; i < lastForm; i++) {
+            final Row row = createRow(context, sheet, TITLE_ROW + 1 + i - firstForm);
+            setLabelCell(context, row, TRANSPOSED_HEADER_COLUMN, headers.get(i), columnWidths);
+            column = TRANSPOSED_HEADER_COLUMN + 1;
+            for (QuestionRowLayout rowLayout : sheetLayout.getRows()) {
+                if (rowLayout.getAnswer(i) != null) {
+                    setCellValue(context, row, column, rowLayout.getAnswer(i), columnWidths);
+                }
+                column++;
+            }
+        }
 
-        for (int i = 0; i < forms.size(); i++) {
-            if (formHeaders != null && i < formHeaders.size()) {
-                titleRow.createCell(getFormResultColumn(i) + VARIABLE_LABEL_COLUMN).setCellValue(formHeaders.get(i));
-            } else if (forms.get(i).getSubmittedBy() != null) {
-                titleRow.createCell(getFormResultColumn(i) + VARIABLE_LABEL_COLUMN).setCellValue(forms.get(i).getSubmittedBy());
-            } else if (forms.get(i).getSubmittedAt() != null) {
-                titleRow.createCell(getFormResultColumn(i) + VARIABLE_LABEL_COLUMN).setCellValue(forms.get(i).getSubmittedAt().format(DATE_TIME_FORMATTER));
-            } else {
-                titleRow.createCell(getFormResultColumn(i) + VARIABLE_LABEL_COLUMN).setCellValue(NO_DATA);
+        resizeColumns(context, sheet, columnWidths, TRANSPOSED_HEADER_COLUMN, column - 1);
+    }
+
+    private void appendAnswersTable(ExportContext context, Sheet sheet, AnswersSheetLayout sheetLayout, List<String> headers, int firstForm,
+                                    int lastForm, int writtenForms) {
+        final ColumnWidths columnWidths = new ColumnWidths();
+        final int firstNewForm = Math.max(firstForm, writtenForms);
+
+        final Row titleRow = sheet.getRow(TITLE_ROW);
+        for (int i = firstNewForm; i < lastForm; i++) {
+            setTitleCell(context, titleRow, getFormResultColumn(i - firstForm) + 1, headers.get(i), columnWidths);
+        }
+
+        final List<QuestionRowLayout> rows = sheetLayout.getRows();
+        for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+            final QuestionRowLayout rowLayout = rows.get(rowIndex);
+            final Row row = getOrCreateRow(context, sheet, TITLE_ROW + 1 + rowIndex);
+            if (rowIndex >= sheetLayout.getWrittenRows()) {
+                setLabelCell(context, row, QUESTION_LABEL_COLUMN, rowLayout.getLabel(), columnWidths);
             }
-            titleRow.getCell(getFormResultColumn(i) + VARIABLE_LABEL_COLUMN).setCellStyle(getTitleStyle(workbook));
-            try {
-                sheet.autoSizeColumn(getFormResultColumn(i) + VARIABLE_LABEL_COLUMN);
-            } catch (NullPointerException e) {
-                // Font not available.
+            for (int i = firstNewForm; i < lastForm; i++) {
+                if (rowLayout.getAnswer(i) != null) {
+                    setCellValue(context, row, getFormResultColumn(i - firstForm + 1), rowLayout.getAnswer(i), columnWidths);
+                }
             }
         }
+
+        widenColumns(context, sheet, columnWidths, QUESTION_LABEL_COLUMN, getFormResultColumn(lastForm - firstForm));
     }
 
-    private void createVariableRow(HSSFWorkbook workbook, HSSFSheet sheet, String xpath, String key, String value, String scope, int formNumber) {
-        setVariableCellValue(workbook, sheet, xpath, key, value, scope, getVariablesColumn(formNumber));
+    private void appendTransposedAnswersTable(ExportContext context, Sheet sheet, AnswersSheetLayout sheetLayout, List<String> headers, int firstForm,
+                                              int lastForm, int writtenForms) {
+        final ColumnWidths columnWidths = new ColumnWidths();
+        final List<QuestionRowLayout> rows = sheetLayout.getRows();
+
+        // New questions at the end of the title
+        final Row titleRow = sheet.getRow(TITLE_ROW);
+        for (int rowIndex = sheetLayout.getWrittenRows(); rowIndex < rows.size(); rowIndex++) {
+            setTitleCell(context, titleRow, TRANSPOSED_HEADER_COLUMN + 1 + rowIndex, rows.get(rowIndex).getLabel(), columnWidths);
+        }
+
+        for (int i = Math.max(firstForm, writtenForms); i < lastForm; i++) {
+            final Row row = createRow(context, sheet, TITLE_ROW + 1 + i - firstForm);
+            setLabelCell(context, row, TRANSPOSED_HEADER_COLUMN, headers.get(i), columnWidths);
+            for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+                if (rows.get(rowIndex).getAnswer(i) != null) {
+                    setCellValue(context, row, TRANSPOSED_HEADER_COLUMN + 1 + rowIndex, rows.get(rowIndex).getAnswer(i), columnWidths);
+                }
+            }
+        }
+
+        widenColumns(context, sheet, columnWidths, TRANSPOSED_HEADER_COLUMN, TRANSPOSED_HEADER_COLUMN + rows.size());
     }
 
-    private void setVariableCellValue(HSSFWorkbook workbook, HSSFSheet sheet, String xpath, String key, String value, String scope, int column) {
-        final HSSFRow variableRowCell = getVariableRow(workbook, sheet, xpath, key, scope);
-        try {
-            final double numericalValue = Double.parseDouble(value);
-            variableRowCell.createCell(column).setCellValue(DECIMAL_FORMAT.format(numericalValue));
-        } catch (NumberFormatException nfe) {
-            variableRowCell.createCell(column).setCellValue(value);
+    private Row createRow(ExportContext context, Sheet sheet, int rowNumber) {
+        context.getMetrics().increment(ExportCounter.ROWS);
+        return sheet.createRow(rowNumber);
+    }
+
+    private Row getOrCreateRow(ExportContext context, Sheet sheet, int rowNumber) {
+        final Row row = sheet.getRow(rowNumber);
+        return row != null ? row : createRow(context, sheet, rowNumber);
+    }
+
+    private void checkSheetSize(String sheetName, String dimension, int required, int maximum) throws InvalidXlsElementException {
+        if (required > maximum) {
+            throw new InvalidXlsElementException("Sheet '" + sheetName + "' needs " + required + " " + dimension + " but the format only allows "
+                    + maximum + ". Use a different layout or format.");
         }
-        variableRowCell.getCell(column).setCellStyle(getContentStyle(workbook));
     }
 
-    private HSSFRow getVariableRow(HSSFWorkbook workbook, HSSFSheet sheet, String xpath, String key, String scope) {
-        if (variableRow.get(xpath + "_" + key) == null) {
-            variableRow.put(xpath + "_" + key, sheet.createRow(getVariableRowNumber(xpath, key)));
-            variableRow.get(xpath + "_" + key).createCell(VARIABLE_LABEL_COLUMN).setCellValue(key);
-            variableRow.get(xpath + "_" + key).getCell(VARIABLE_LABEL_COLUMN).setCellStyle(getAnswerLabelsStyle(workbook));
-            variableRow.get(xpath + "_" + key).createCell(VARIABLE_SCOPE_COLUMN).setCellValue(scope);
-            variableRow.get(xpath + "_" + key).getCell(VARIABLE_SCOPE_COLUMN).setCellStyle(getAnswerLabelsStyle(workbook));
+    /**
+     * Name of each sheet when the forms are split on several sheets. The first one keeps the original name.
+     */
+    private String getPageName(String sheetName, int page) {
+        if (page == 0) {
+            return sheetName;
         }
-        return variableRow.get(xpath + "_" + key);
+        final String suffix = String.format(SHEET_PAGE_FORMAT, page + 1);
+        return sheetName.substring(0, Math.min(sheetName.length(), MAX_SHEET_NAME_LENGTH - suffix.length())) + suffix;
     }
 
-    private int getVariableRowNumber(String xpath, String key) {
-        variableRowNumber.computeIfAbsent(xpath + "_" + key, k -> variableRowNumber.size() + TITLE_ROW + 1);
-        return variableRowNumber.get(xpath + "_" + key);
+    private Sheet createSheet(ExportContext context, String name) {
+        final Sheet sheet = context.getWorkbook().createSheet(name);
+        context.getMetrics().increment(ExportCounter.SHEETS);
+        sheet.setDefaultRowHeight((short) DEFAULT_ROW_EIGHT);
+        if (columnWidthStrategy == ColumnWidthStrategy.AUTO_SIZE && sheet instanceof SXSSFSheet) {
+            // Streamed rows are flushed to disk, the widths must be measured while they are written.
+            ((SXSSFSheet) sheet).trackAllColumnsForAutoSizing();
+        }
+        return sheet;
     }
 
+    /**
+     * Sets the width of the columns once all the cells of the sheet have been written.
+     */
+    private void resizeColumns(ExportContext context, Sheet sheet, ColumnWidths columnWidths, int firstColumn, int lastColumn) {
+        resizeColumns(context, sheet, columnWidths, firstColumn, lastColumn, false);
+    }
 
-    private void createRow(HSSFWorkbook workbook, HSSFSheet sheet, DroolsSubmittedCategory category, DroolsSubmittedQuestion question, int formNumber) {
-        setCellValue(workbook, sheet, category, question, getFormResultColumn(formNumber), getAnswersText(question));
+    /**
+     * Sets the width of the columns after appending cells to a sheet. Estimated widths are only used if wider than the current ones, as the
+     * widths of the existing cells are unknown.
+     */
+    private void widenColumns(ExportContext context, Sheet sheet, ColumnWidths columnWidths, int firstColumn, int lastColumn) {
+        resizeColumns(context, sheet, columnWidths, firstColumn, lastColumn, true);
     }
 
-    private void setCellValue(HSSFWorkbook workbook, HSSFSheet sheet, DroolsSubmittedCategory category, DroolsSubmittedQuestion question,
-                              int column, String value) {
-        final HSSFRow rowCell = getQuestionRow(workbook, sheet, category, question);
-        try {
-            final double numericalValue = Double.parseDouble(value);
-            rowCell.createCell(column).setCellValue(DECIMAL_FORMAT.format(numericalValue));
-        } catch (NumberFormatException nfe) {
-            rowCell.createCell(column).setCellValue(value);
-        }
-        rowCell.getCell(column).setCellStyle(getContentStyle(workbook));
-    }
-
-    private String getAnswersText(DroolsSubmittedQuestion question) {
-        // Add answers
-        final List<String> answers = new ArrayList<>(question.getAnswers());
-        Collections.sort(answers);
-        final StringBuilder stringBuilder = new StringBuilder();
-        for (String answer : answers) {
-            if (answer != null) {
-                stringBuilder.append(answer);
-                stringBuilder.append(ANSWER_SEPARATOR);
+    private void resizeColumns(ExportContext context, Sheet sheet, ColumnWidths columnWidths, int firstColumn, int lastColumn, boolean onlyWider) {
+        final ExportPhase previousPhase = context.getMetrics().startPhase(ExportPhase.RESIZE_COLUMNS);
+        final ResizeColumnsEvent event = new ResizeColumnsEvent();
+        event.begin();
+        boolean autoSize = columnWidthStrategy == ColumnWidthStrategy.AUTO_SIZE;
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            if (autoSize) {
+                try {
+                    sheet.autoSizeColumn(column);
+                    continue;
+                } catch (NullPointerException | InternalError e) {
+                    // Fonts not available on this system.
+                    XlsExporterLog.warning(this.getClass().getName(), "Fonts not available, using estimated column widths.");
+                    context.getMetrics().increment(ExportCounter.SWALLOWED_EXCEPTIONS);
+                    autoSize = false;
+                }
+            }
+            if (columnWidthStrategy != ColumnWidthStrategy.NONE && columnWidths.getWidth(column) > 0) {
+                sheet.setColumnWidth(column, onlyWider ? Math.max(columnWidths.getWidth(column), sheet.getColumnWidth(column))
+                        : columnWidths.getWidth(column));
             }
         }
-        // Remove last separator
-        if (stringBuilder.length() > 0) {
-            return stringBuilder.substring(0, stringBuilder.length() - ANSWER_SEPARATOR.length());
+        event.end();
+        event.commit(sheet.getSheetName(), columnWidthStrategy, lastColumn - firstColumn + 1, sheet.getLastRowNum() + 1);
+        context.getMetrics().startPhase(previousPhase);
+    }
+
+    private void createAnswersTitle(ExportContext context, Sheet sheet, List<String> headers, int firstForm, int lastForm,
+                                    ColumnWidths columnWidths) {
+        final Row titleRow = createRow(context, sheet, TITLE_ROW);
+        setTitleCell(context, titleRow, QUESTION_LABEL_COLUMN, FormsLayout.QUESTION_LABEL_TITLE, columnWidths);
+        sheet.setColumnWidth(QUESTION_LABEL_COLUMN, QUESTION_LABEL_WIDTH);
+
+        for (int i = firstForm; i < lastForm; i++) {
+            setTitleCell(context, titleRow, getFormResultColumn(i - firstForm) + 1, headers.get(i), columnWidths);
         }
-        return stringBuilder.toString();
     }
 
-    private HSSFRow getQuestionRow(HSSFWorkbook workbook, HSSFSheet sheet, DroolsSubmittedCategory category, DroolsSubmittedQuestion question) {
-        if (questionRow.get(question.getXPath()) == null) {
-            questionRow.put(question.getXPath(), sheet.createRow(getQuestionRowNumber(category, question)));
-            questionRow.get(question.getXPath()).createCell(QUESTION_LABEL_COLUMN).setCellValue(question.getText());
-            questionRow.get(question.getXPath()).getCell(QUESTION_LABEL_COLUMN).setCellStyle(getAnswerLabelsStyle(workbook));
+    /**
+     * Title of a form. Computed once and used on the title row of every sheet.
+     *
+     * @param form        the form.
+     * @param index       position of the form on the list of headers defined by the user: among the new forms when appending.
+     * @param formHeaders the titles defined by the user. Can be null or shorter than the list of forms.
+     * @return the title of the form.
+     */
+    private String getFormHeader(DroolsSubmittedForm form, int index, List<String> formHeaders) {
+        if (formHeaders != null && index < formHeaders.size()) {
+            return formHeaders.get(index);
+        } else if (form.getSubmittedBy() != null) {
+            return form.getSubmittedBy();
+        } else if (form.getSubmittedAt() != null) {
+            return form.getSubmittedAt().format(DATE_TIME_FORMATTER);
         }
-        return questionRow.get(question.getXPath());
+        return NO_DATA;
     }
 
-    private int getQuestionRowNumber(DroolsSubmittedCategory category, DroolsSubmittedQuestion question) {
-        if (questionRowNumber.get(category.getXPath()) == null) {
-            questionRowNumber.put(category.getXPath(), new HashMap<>());
+
+    /**
+     * Writes the pages of the variables sheet. Pages with forms already written are completed with the new forms and rows, other pages are
+     * created.
+     *
+     * @param writtenForms forms already on the document (0 for a new sheet).
+     * @param writtenRows  variable rows already on the document.
+     */
+    private void createVariablesSheets(ExportContext context, List<VariableRowLayout> rowLayouts, List<String> headers, int writtenForms,
+                                       int writtenRows) throws InvalidXlsElementException {
+        final SpreadsheetVersion version = context.getWorkbook().getSpreadsheetVersion();
+        final int formsPerSheet;
+        if (layout == XlsLayout.FORMS_AS_ROWS) {
+            checkSheetSize(FormsLayout.VARIABLES_SHEET_NAME, "columns", TRANSPOSED_HEADER_COLUMN + 1 + rowLayouts.size(), version.getMaxColumns());
+            formsPerSheet = version.getMaxRows() - (TITLE_ROW + 2);
+        } else {
+            checkSheetSize(FormsLayout.VARIABLES_SHEET_NAME, "rows", TITLE_ROW + 1 + rowLayouts.size(), version.getMaxRows());
+            formsPerSheet = version.getMaxColumns() - (VARIABLE_LABEL_COLUMN + 1);
         }
-        if (questionRowNumber.get(category.getXPath()).get(question.getXPath()) == null) {
-            questionRowNumber.get(category.getXPath()).put(question.getXPath(), questionRowNumber.get(category.getXPath()).size() + TITLE_ROW + 1);
+
+        for (int page = 0; page * formsPerSheet < headers.size(); page++) {
+            final int firstForm = page * formsPerSheet;
+            final int lastForm = Math.min(firstForm + formsPerSheet, headers.size());
+            final String sheetName = getPageName(FormsLayout.parseInvalidCharacters(FormsLayout.VARIABLES_SHEET_NAME), page);
+            checkInterrupted();
+            final SheetEvent event = new SheetEvent();
+            final long cells = context.getMetrics().get(ExportCounter.CELLS);
+            event.begin();
+            if (firstForm >= writtenForms) {
+                final Sheet sheet = createSheet(context, sheetName);
+                if (layout == XlsLayout.FORMS_AS_ROWS) {
+                    createTransposedVariablesTable(context, sheet, rowLayouts, headers, firstForm, lastForm);
+                } else {
+                    createVariablesTable(context, sheet, rowLayouts, headers, firstForm, lastForm);
+                }
+            } else if (lastForm > writtenForms || rowLayouts.size() > writtenRows) {
+                final Sheet sheet = getWrittenSheet(context, sheetName);
+                if (layout == XlsLayout.FORMS_AS_ROWS) {
+                    appendTransposedVariablesTable(context, sheet, rowLayouts, headers, firstForm, lastForm, writtenForms, writtenRows);
+                } else {
+                    appendVariablesTable(context, sheet, rowLayouts, headers, firstForm, lastForm, writtenForms, writtenRows);
+                }
+            }
+            event.end();
+            event.commit(sheetName, lastForm - Math.max(firstForm, writtenForms), context.getMetrics().get(ExportCounter.CELLS) - cells);
         }
-        return questionRowNumber.get(category.getXPath()).get(question.getXPath());
     }
 
-    private int getVariablesColumn(int formNumber) {
-        return formNumber + VARIABLE_LABEL_COLUMN;
-    }
+    private void createVariablesTable(ExportContext context, Sheet sheet, List<VariableRowLayout> rowLayouts, List<String> headers, int firstForm,
+                                      int lastForm) {
+        final ColumnWidths columnWidths = new ColumnWidths();
 
-    private int getFormResultColumn(int formNumber) {
-        return formNumber + QUESTION_LABEL_COLUMN;
-    }
+        // Create title
+        createVariablesTitle(context, sheet, headers, firstForm, lastForm, columnWidths);
 
-    private CellStyle getAnswerLabelsStyle(HSSFWorkbook workbook) {
-        if (answerStyle == null) {
-            answerStyle = workbook.createCellStyle();
+        int rowNumber = TITLE_ROW + 1;
+        for (VariableRowLayout rowLayout : rowLayouts) {
+            final Row row = createRow(context, sheet, rowNumber++);
+            setLabelCell(context, row, VARIABLE_LABEL_COLUMN, rowLayout.getKey(), columnWidths);
+            setLabelCell(context, row, VARIABLE_SCOPE_COLUMN, rowLayout.getScope(), columnWidths);
+            for (int i = firstForm; i < lastForm; i++) {
+                if (rowLayout.getValue(i) != null) {
+                    setCellValue(context, row, getVariablesColumn(i - firstForm + 1), rowLayout.getValue(i), columnWidths);
+                }
+            }
+        }
+
+        resizeColumns(context, sheet, columnWidths, getVariablesColumn(1), getVariablesColumn(lastForm - firstForm));
+    }
 
-            // Background Color
-            answerStyle.setFillForegroundColor(HSSFColorPredefined.GREY_25_PERCENT.getIndex());
-            answerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+    private void createTransposedVariablesTable(ExportContext context, Sheet sheet, List<VariableRowLayout> rowLayouts,
+                                                List<String> headers, int firstForm, int lastForm) {
+        final ColumnWidths columnWidths = new ColumnWidths();
 
-            // Font
-            final Font answerFont = workbook.createFont();
-            answerFont.setFontHeightInPoints((short) ANSWER_LABEL_FONT_SIZE);
-            answerStyle.setFont(answerFont);
+        // Create title, with the scopes over the variable names
+        final Row scopeRow = createRow(context, sheet, TITLE_ROW);
+        final Row variableRow = createRow(context, sheet, TITLE_ROW + 1);
+        setTitleCell(context, scopeRow, TRANSPOSED_HEADER_COLUMN, FormsLayout.VARIABLE_SCOPE_TITLE, columnWidths);
+        setTitleCell(context, variableRow, TRANSPOSED_HEADER_COLUMN, FormsLayout.VARIABLE_LABEL_TITLE, columnWidths);
+        int column = TRANSPOSED_HEADER_COLUMN + 1;
+        for (VariableRowLayout rowLayout : rowLayouts) {
+            setLabelCell(context, scopeRow, column, rowLayout.getScope(), columnWidths);
+            setTitleCell(context, variableRow, column, rowLayout.getKey(), columnWidths);
+            column++;
+        }
 
-            // Border
-            answerStyle.setBorderBottom(BorderStyle.THIN);
-            answerStyle.setBottomBorderColor(IndexedColors.BLACK.getIndex());
+        // Create one row by form
+        for (int i = firstForm; i < lastForm; i++) {
+            final Row row = createRow(context, sheet, TITLE_ROW + 2 + i - firstForm);
+            setLabelCell(context, row, TRANSPOSED_HEADER_COLUMN, headers.get(i), columnWidths);
+            column = TRANSPOSED_HEADER_COLUMN + 1;
+            for (VariableRowLayout rowLayout : rowLayouts) {
+                if (rowLayout.getValue(i) != null) {
+                    setCellValue(context, row, column, rowLayout.getValue(i), columnWidths);
+                }
+                column++;
+            }
         }
-        return answerStyle;
+
+        resizeColumns(context, sheet, columnWidths, TRANSPOSED_HEADER_COLUMN, column - 1);
     }
 
-    private CellStyle getTitleStyle(HSSFWorkbook workbook) {
-        if (titleStyle == null) {
-            titleStyle = workbook.createCellStyle();
+    private void appendVariablesTable(ExportContext context, Sheet sheet, List<VariableRowLayout> rowLayouts, List<String> headers, int firstForm,
+                                      int lastForm, int writtenForms, int writtenRows) {
+        final ColumnWidths columnWidths = new ColumnWidths();
+        final int firstNewForm = Math.max(firstForm, writtenForms);
+
+        final Row titleRow = sheet.getRow(TITLE_ROW);
+        for (int i = firstNewForm; i < lastForm; i++) {
+            setTitleCell(context, titleRow, getFormResultColumn(i - firstForm) + VARIABLE_LABEL_COLUMN, headers.get(i), columnWidths);
+        }
 
-            // Border
-            titleStyle.setBorderRight(BorderStyle.THIN);
-            titleStyle.setRightBorderColor(IndexedColors.BLACK.getIndex());
-            titleStyle.setBorderBottom(BorderStyle.THIN);
-            titleStyle.setBottomBorderColor(IndexedColors.BLACK.getIndex());
-            titleStyle.setBorderLeft(BorderStyle.THIN);
-            titleStyle.setLeftBorderColor(IndexedColors.BLACK.getIndex());
-            titleStyle.setBorderTop(BorderStyle.THIN);
-            titleStyle.setTopBorderColor(IndexedColors.BLACK.getIndex());
+        for (int rowIndex = 0; rowIndex < rowLayouts.size(); rowIndex++) {
+            final VariableRowLayout rowLayout = rowLayouts.get(rowIndex);
+            final Row row = getOrCreateRow(context, sheet, TITLE_ROW + 1 + rowIndex);
+            if (rowIndex >= writtenRows) {
+                setLabelCell(context, row, VARIABLE_LABEL_COLUMN, rowLayout.getKey(), columnWidths);
+                setLabelCell(context, row, VARIABLE_SCOPE_COLUMN, rowLayout.getScope(), columnWidths);
+            }
+            for (int i = firstNewForm; i < lastForm; i++) {
+                if (rowLayout.getValue(i) != null) {
+                    setCellValue(context, row, getVariablesColumn(i - firstForm + 1), rowLayout.getValue(i), columnWidths);
+                }
+            }
+        }
 
-            // Background Color
-            titleStyle.setFillForegroundColor(HSSFColorPredefined.PINK.getIndex());
-            titleStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        widenColumns(context, sheet, columnWidths, getVariablesColumn(1), getVariablesColumn(lastForm - firstForm));
+    }
 
-            // Alignment
-            titleStyle.setAlignment(HorizontalAlignment.CENTER);
-            titleStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+    private void appendTransposedVariablesTable(ExportContext context, Sheet sheet, List<VariableRowLayout> rowLayouts, List<String> headers,
+                                                int firstForm, int lastForm, int writtenForms, int writtenRows) {
+        final ColumnWidths columnWidths = new ColumnWidths();
 
-            // Font
-            final Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerFont.setFontHeightInPoints((short) TITLE_FONT_SIZE);
-            headerFont.setColor(IndexedColors.WHITE.getIndex());
-            titleStyle.setFont(headerFont);
+        // New variables at the end of the title
+        final Row scopeRow = sheet.getRow(TITLE_ROW);
+        final Row variableRow = sheet.getRow(TITLE_ROW + 1);
+        for (int rowIndex = writtenRows; rowIndex < rowLayouts.size(); rowIndex++) {
+            setLabelCell(context, scopeRow, TRANSPOSED_HEADER_COLUMN + 1 + rowIndex, rowLayouts.get(rowIndex).getScope(), columnWidths);
+            setTitleCell(context, variableRow, TRANSPOSED_HEADER_COLUMN + 1 + rowIndex, rowLayouts.get(rowIndex).getKey(), columnWidths);
         }
-        return titleStyle;
+
+        for (int i = Math.max(firstForm, writtenForms); i < lastForm; i++) {
+            final Row row = createRow(context, sheet, TITLE_ROW + 2 + i - firstForm);
+            setLabelCell(context, row, TRANSPOSED_HEADER_COLUMN, headers.get(i), columnWidths);
+            for (int rowIndex = 0; rowIndex < rowLayouts.size(); rowIndex++) {
+                if (rowLayouts.get(rowIndex).getValue(i) != null) {
+                    setCellValue(context, row, TRANSPOSED_HEADER_COLUMN + 1 + rowIndex, rowLayouts.get(rowIndex).getValue(i), columnWidths);
+                }
+            }
+        }
+
+        widenColumns(context, sheet, columnWidths, TRANSPOSED_HEADER_COLUMN, TRANSPOSED_HEADER_COLUMN + rowLayouts.size());
     }
 
-    private CellStyle getContentStyle(HSSFWorkbook workbook) {
-        if (contentStyle == null) {
-            contentStyle = workbook.createCellStyle();
+    private void createVariablesTitle(ExportContext context, Sheet sheet, List<String> headers, int firstForm, int lastForm,
+                                      ColumnWidths columnWidths) {
+        final Row titleRow = createRow(context, sheet, TITLE_ROW);
 
-            // Background Color
-            contentStyle.setFillForegroundColor(HSSFColorPredefined.GREY_25_PERCENT.getIndex());
-            contentStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        setTitleCell(context, titleRow, VARIABLE_SCOPE_COLUMN, FormsLayout.VARIABLE_SCOPE_TITLE, columnWidths);
+        sheet.setColumnWidth(VARIABLE_SCOPE_COLUMN, VARIABLE_LABEL_WIDTH);
 
-            contentStyle.setAlignment(HorizontalAlignment.CENTER);
+        setTitleCell(context, titleRow, VARIABLE_LABEL_COLUMN, FormsLayout.VARIABLE_LABEL_TITLE, columnWidths);
+        sheet.setColumnWidth(VARIABLE_LABEL_COLUMN, VARIABLE_LABEL_WIDTH);
 
-            // Border
-            contentStyle.setBorderBottom(BorderStyle.THIN);
-            contentStyle.setBottomBorderColor(IndexedColors.BLACK.getIndex());
+        for (int i = firstForm; i < lastForm; i++) {
+            setTitleCell(context, titleRow, getFormResultColumn(i - firstForm) + VARIABLE_LABEL_COLUMN, headers.get(i), columnWidths);
         }
-        return contentStyle;
     }
 
-    private HSSFColor setColor(HSSFWorkbook workbook, HSSFColorPredefined color, byte r, byte g, byte b) {
-        final HSSFPalette palette = workbook.getCustomPalette();
-        HSSFColor hssfColor = null;
-        try {
-            hssfColor = palette.findColor(r, g, b);
-            if (hssfColor == null) {
-                palette.setColorAtIndex(color.getIndex(), r, g, b);
-                hssfColor = palette.getColor(color.getIndex());
+    private void setCellValue(ExportContext context, Row row, int column, String value, ColumnWidths columnWidths) {
+        if (NumericScanner.isNumber(value)) {
+            final double numericalValue = Double.parseDouble(value);
+            if (Double.isFinite(numericalValue)) {
+                setCellValue(context, row, column, numericalValue, columnWidths);
+                return;
             }
-        } catch (Exception e) {
-            XlsExporterLog.errorMessage(this.getClass().getName(), e);
+            setTextCellValue(context, row, column, DecimalFormatter.format(numericalValue), columnWidths);
+        } else {
+            setTextCellValue(context, row, column, value, columnWidths);
+        }
+    }
+
+    private void setCellValue(ExportContext context, Row row, int column, double value, ColumnWidths columnWidths) {
+        final Cell cell = createCell(context, row, column);
+        cell.setCellValue(DecimalFormatter.round(value));
+        cell.setCellStyle(context.getContentStyle());
+        columnWidths.update(column, DecimalFormatter.format(value), ExportContext.DEFAULT_FONT_SIZE);
+    }
+
+    private void setTextCellValue(ExportContext context, Row row, int column, String text, ColumnWidths columnWidths) {
+        final Cell cell = createCell(context, row, column);
+        cell.setCellValue(text);
+        cell.setCellStyle(context.getContentStyle());
+        columnWidths.update(column, text, ExportContext.DEFAULT_FONT_SIZE);
+    }
+
+    private void setTitleCell(ExportContext context, Row row, int column, String value, ColumnWidths columnWidths) {
+        createCell(context, row, column).setCellValue(value);
+        row.getCell(column).setCellStyle(context.getTitleStyle());
+        columnWidths.update(column, value, ExportContext.TITLE_FONT_SIZE);
+    }
+
+    private void setLabelCell(ExportContext context, Row row, int column, String value, ColumnWidths columnWidths) {
+        createCell(context, row, column).setCellValue(value);
+        row.getCell(column).setCellStyle(context.getAnswerLabelsStyle());
+        columnWidths.update(column, value, ExportContext.ANSWER_LABEL_FONT_SIZE);
+    }
+
+    private Cell createCell(ExportContext context, Row row, int column) {
+        context.getMetrics().increment(ExportCounter.CELLS);
+        return row.createCell(column);
+    }
+
+    private int getVariablesColumn(int formNumber) {
+        return formNumber + VARIABLE_LABEL_COLUMN;
+    }
+
+    private int getFormResultColumn(int formNumber) {
+        return formNumber + QUESTION_LABEL_COLUMN;
+    }
+
+    /**
+     * Header and values of a form read on the pool.
+     */
+    private static final class ReadForm {
+        private final String header;
+        private final FormValues values;
+
+        private ReadForm(String header, FormValues values) {
+            this.header = header;
+            this.values = values;
         }
+    }
+
+    /**
+     * Creates the workbooks of an export with several documents, and receives each one once completed.
+     */
+    interface WorkbookConsumer {
+
+        Workbook createWorkbook();
 
-        return hssfColor;
+        /**
+         * @param name     name of the only category of the workbook, or of the variables.
+         * @param workbook the completed workbook. Must be closed by the consumer.
+         * @throws InvalidXlsElementException if the workbook cannot be written.
+         */
+        void accept(String name, Workbook workbook) throws InvalidXlsElementException;
     }
 
 }
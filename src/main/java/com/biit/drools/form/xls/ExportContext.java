@@ -0,0 +1,220 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.logger.XlsExporterLog;
+import org.apache.poi.hssf.usermodel.HSSFPalette;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.hssf.util.HSSFColor;
+import org.apache.poi.hssf.util.HSSFColor.HSSFColorPredefined;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * State of a single export: the workbook being written, the styles created on it and the metrics of the export. A new context is created for each
+ * document, so exports running on different threads never share it.
+ * <p>
+ * New XLSX workbooks get their styles from the {@link StyleTemplate}. XLS styles are created the first time they are used.
+ */
+final class ExportContext {
+    static final int DEFAULT_FONT_SIZE = 11;
+    static final int TITLE_FONT_SIZE = 14;
+    static final int ANSWER_LABEL_FONT_SIZE = 12;
+
+    private static final byte GREY_50_PERCENT = (byte) 0xA0;
+    private static final byte GREY_25_PERCENT = (byte) 0xEE;
+    private static final byte RED_R = (byte) 0xEE;
+    private static final byte RED_G = (byte) 0xAA;
+    private static final byte RED_B = (byte) 0xAA;
+    private static final byte PINK_R = (byte) 0xF2;
+    private static final byte PINK_G = (byte) 0x0D;
+    private static final byte PINK_B = (byte) 0x5E;
+
+    private final Workbook workbook;
+    private final ExportMetrics metrics;
+
+    private CellStyle titleStyle = null;
+    private CellStyle answerStyle = null;
+    private CellStyle contentStyle = null;
+
+    ExportContext(Workbook workbook, ExportMetrics metrics) {
+        this(workbook, metrics, true);
+    }
+
+    private ExportContext(Workbook workbook, ExportMetrics metrics, boolean useTemplate) {
+        this.workbook = workbook;
+        this.metrics = metrics;
+        final XSSFWorkbook xssfWorkbook = getXssfWorkbook(workbook);
+        if (useTemplate && xssfWorkbook != null) {
+            final CellStyle[] styles = StyleTemplate.getXlsx().createStyles(xssfWorkbook);
+            titleStyle = styles[0];
+            answerStyle = styles[1];
+            contentStyle = styles[2];
+        }
+        if (workbook instanceof HSSFWorkbook) {
+            // Override colors
+            setColor((HSSFWorkbook) workbook, HSSFColorPredefined.GREY_50_PERCENT, GREY_50_PERCENT, GREY_50_PERCENT, GREY_50_PERCENT);
+            setColor((HSSFWorkbook) workbook, HSSFColorPredefined.GREY_25_PERCENT, GREY_25_PERCENT, GREY_25_PERCENT, GREY_25_PERCENT);
+            setColor((HSSFWorkbook) workbook, HSSFColorPredefined.RED, RED_R, RED_G, RED_B);
+            setColor((HSSFWorkbook) workbook, HSSFColorPredefined.PINK, PINK_R, PINK_G, PINK_B);
+        }
+    }
+
+    /**
+     * Context that reuses the styles already created on the workbook.
+     */
+    ExportContext(Workbook workbook, ExportMetrics metrics, CellStyle titleStyle, CellStyle answerStyle, CellStyle contentStyle) {
+        this(workbook, metrics, false);
+        this.titleStyle = titleStyle;
+        this.answerStyle = answerStyle;
+        this.contentStyle = contentStyle;
+    }
+
+    /**
+     * Context that creates its styles with the setters of POI, used to compile the {@link StyleTemplate}.
+     */
+    static ExportContext createTemplate(XSSFWorkbook workbook) {
+        return new ExportContext(workbook, new ExportMetrics(), false);
+    }
+
+    private static XSSFWorkbook getXssfWorkbook(Workbook workbook) {
+        if (workbook instanceof SXSSFWorkbook) {
+            return ((SXSSFWorkbook) workbook).getXSSFWorkbook();
+        }
+        return workbook instanceof XSSFWorkbook ? (XSSFWorkbook) workbook : null;
+    }
+
+    Workbook getWorkbook() {
+        return workbook;
+    }
+
+    ExportMetrics getMetrics() {
+        return metrics;
+    }
+
+    CellStyle getAnswerLabelsStyle() {
+        if (answerStyle == null) {
+            answerStyle = workbook.createCellStyle();
+
+            // Background Color
+            setFillColor(answerStyle, HSSFColorPredefined.GREY_25_PERCENT, GREY_25_PERCENT, GREY_25_PERCENT, GREY_25_PERCENT);
+            answerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+            // Font
+            final Font answerFont = workbook.createFont();
+            answerFont.setFontHeightInPoints((short) ANSWER_LABEL_FONT_SIZE);
+            answerStyle.setFont(answerFont);
+
+            // Border
+            answerStyle.setBorderBottom(BorderStyle.THIN);
+            answerStyle.setBottomBorderColor(IndexedColors.BLACK.getIndex());
+        }
+        return answerStyle;
+    }
+
+    CellStyle getTitleStyle() {
+        if (titleStyle == null) {
+            titleStyle = workbook.createCellStyle();
+
+            // Border
+            titleStyle.setBorderRight(BorderStyle.THIN);
+            titleStyle.setRightBorderColor(IndexedColors.BLACK.getIndex());
+            titleStyle.setBorderBottom(BorderStyle.THIN);
+            titleStyle.setBottomBorderColor(IndexedColors.BLACK.getIndex());
+            titleStyle.setBorderLeft(BorderStyle.THIN);
+            titleStyle.setLeftBorderColor(IndexedColors.BLACK.getIndex());
+            titleStyle.setBorderTop(BorderStyle.THIN);
+            titleStyle.setTopBorderColor(IndexedColors.BLACK.getIndex());
+
+            // Background Color
+            setFillColor(titleStyle, HSSFColorPredefined.PINK, PINK_R, PINK_G, PINK_B);
+            titleStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+            // Alignment
+            titleStyle.setAlignment(HorizontalAlignment.CENTER);
+            titleStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+
+            // Font
+            final Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerFont.setFontHeightInPoints((short) TITLE_FONT_SIZE);
+            headerFont.setColor(IndexedColors.WHITE.getIndex());
+            titleStyle.setFont(headerFont);
+        }
+        return titleStyle;
+    }
+
+    CellStyle getContentStyle() {
+        if (contentStyle == null) {
+            contentStyle = workbook.createCellStyle();
+
+            // Background Color
+            setFillColor(contentStyle, HSSFColorPredefined.GREY_25_PERCENT, GREY_25_PERCENT, GREY_25_PERCENT, GREY_25_PERCENT);
+            contentStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+            contentStyle.setAlignment(HorizontalAlignment.CENTER);
+
+            // Border
+            contentStyle.setBorderBottom(BorderStyle.THIN);
+            contentStyle.setBottomBorderColor(IndexedColors.BLACK.getIndex());
+        }
+        return contentStyle;
+    }
+
+    /**
+     * HSSF uses the overridden palette colors. XLSX has no palette, therefore the same RGB values are set directly on the style.
+     */
+    private void setFillColor(CellStyle style, HSSFColorPredefined color, byte r, byte g, byte b) {
+        if (style instanceof XSSFCellStyle) {
+            ((XSSFCellStyle) style).setFillForegroundColor(new XSSFColor(new byte[]{r, g, b}, null));
+        } else {
+            style.setFillForegroundColor(color.getIndex());
+        }
+    }
+
+    private HSSFColor setColor(HSSFWorkbook workbook, HSSFColorPredefined color, byte r, byte g, byte b) {
+        final HSSFPalette palette = workbook.getCustomPalette();
+        HSSFColor hssfColor = null;
+        try {
+            hssfColor = palette.findColor(r, g, b);
+            if (hssfColor == null) {
+                palette.setColorAtIndex(color.getIndex(), r, g, b);
+                hssfColor = palette.getColor(color.getIndex());
+            }
+        } catch (Exception e) {
+            XlsExporterLog.errorMessage(this.getClass().getName(), e);
+            metrics.increment(ExportCounter.SWALLOWED_EXCEPTIONS);
+        }
+
+        return hssfColor;
+    }
+}
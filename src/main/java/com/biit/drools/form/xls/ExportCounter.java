@@ -0,0 +1,91 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * Counters of an export, measured by {@link ExportInstrumentation}.
+ */
+public enum ExportCounter {
+
+    FORMS("forms"),
+
+    SHEETS("sheets"),
+
+    ROWS("rows"),
+
+    CELLS("cells"),
+
+    /**
+     * Size of the generated document.
+     */
+    BYTES_WRITTEN("bytes_written"),
+
+    /**
+     * Errors that did not stop the export, as fonts not available to autosize the columns.
+     */
+    SWALLOWED_EXCEPTIONS("swallowed_exceptions"),
+
+    /**
+     * Different texts written on the document.
+     */
+    STRINGS("strings"),
+
+    /**
+     * Texts that were already on the document and share the same instance.
+     */
+    DEDUPLICATED_STRINGS("deduplicated_strings"),
+
+    /**
+     * Workbooks written on a {@link XlsBundle}.
+     */
+    BUNDLED_DOCUMENTS("bundled_documents"),
+
+    /**
+     * Size of a {@link XlsBundle}, once compressed. The size of its workbooks is {@link #BYTES_WRITTEN}.
+     */
+    BUNDLE_BYTES("bundle_bytes"),
+
+    /**
+     * Size of the memory-mapped file with the values of the forms, when they are not kept on the heap.
+     */
+    SPILLED_BYTES("spilled_bytes"),
+
+    /**
+     * Different sets of variables of the forms. The variables of each set are sorted only once.
+     */
+    VARIABLE_SCHEMAS("variable_schemas"),
+
+    /**
+     * Different sheets and questions of the forms, usually one for each form definition. The rows of each plan are looked up only once.
+     */
+    EXPORT_PLANS("export_plans");
+
+    private final String metricName;
+
+    ExportCounter(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
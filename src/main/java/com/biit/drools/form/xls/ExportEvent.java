@@ -0,0 +1,82 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a whole export, from reading the forms to writing the document.
+ */
+@Name(ExportEvent.NAME)
+@Label("XLS Export")
+@Category({"BiiT", "XLS Export"})
+@Description("Generation of a document with submitted forms.")
+final class ExportEvent extends Event {
+    static final String NAME = "com.biit.drools.form.xls.Export";
+
+    @Label("Format")
+    private String format;
+
+    @Label("Layout")
+    private String layout;
+
+    @Label("Appended")
+    @Description("Forms added to an existing document.")
+    private boolean appended;
+
+    @Label("Forms")
+    private long forms;
+
+    @Label("Cells")
+    private long cells;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * Commits the event with the counters of the export. Must be called after {@link #end()}.
+     */
+    void commit(XlsFormat exportFormat, XlsLayout exportLayout, boolean append, ExportReport report) {
+        commit(exportFormat.name(), exportLayout, append, report);
+    }
+
+    /**
+     * Commits the event of an export that is not a workbook (see {@link TableFormat}). Must be called after {@link #end()}.
+     */
+    void commit(String exportFormat, XlsLayout exportLayout, boolean append, ExportReport report) {
+        if (shouldCommit()) {
+            format = exportFormat;
+            layout = exportLayout.name();
+            appended = append;
+            forms = report.getCount(ExportCounter.FORMS);
+            cells = report.getCount(ExportCounter.CELLS);
+            bytes = report.getCount(ExportCounter.BYTES_WRITTEN);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import com.biit.drools.form.xls.logger.XlsExporterLog;
+
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs exports out of the threads of the caller. Only a fixed number of exports run at the same time, and only a limited number of them can wait:
+ * once the queue is full, new exports are rejected immediately with a {@link RejectedExecutionException}, so callers can answer that the server is
+ * busy instead of piling up work.
+ * <p>
+ * Cancelling the returned future removes a waiting export from the queue, or interrupts it if it is already running.
+ */
+public final class ExportExecutor implements AutoCloseable {
+    public static final int DEFAULT_QUEUE_DEPTH = 64;
+    private static final String THREAD_NAME = "xls-export-";
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Shared executor used by {@link FormsAsXls#generateAsync()}, created when first used.
+     */
+    private static final class DefaultExecutor {
+        private static final ExportExecutor INSTANCE = new ExportExecutor(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_DEPTH);
+    }
+
+    /**
+     * Exports run on virtual threads if the JVM supports them, or on daemon threads otherwise.
+     *
+     * @param maxRunningExports exports that can run at the same time.
+     * @param maxQueuedExports  exports that can wait before new ones are rejected.
+     */
+    public ExportExecutor(int maxRunningExports, int maxQueuedExports) {
+        this(maxRunningExports, maxQueuedExports, createThreadFactory());
+    }
+
+    /**
+     * @param maxRunningExports exports that can run at the same time.
+     * @param maxQueuedExports  exports that can wait before new ones are rejected.
+     * @param threadFactory     creates the threads that run the exports.
+     */
+    public ExportExecutor(int maxRunningExports, int maxQueuedExports, ThreadFactory threadFactory) {
+        if (maxRunningExports <= 0 || maxQueuedExports <= 0) {
+            throw new IllegalArgumentException("Running and queued exports must be positive.");
+        }
+        executor = new ThreadPoolExecutor(maxRunningExports, maxRunningExports, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedExports), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    static ExportExecutor getDefault() {
+        return DefaultExecutor.INSTANCE;
+    }
+
+    /**
+     * Generates the document.
+     *
+     * @param formsAsXls the export. Must not be modified until the future is completed.
+     * @return the document. Completed exceptionally with an {@link InvalidXlsElementException} if the document cannot be generated, with a
+     * {@link RejectedExecutionException} if too many exports are waiting, or with the {@link Error} thrown by the export.
+     */
+    public CompletableFuture<byte[]> submit(FormsAsXls formsAsXls) {
+        return submit(formsAsXls::generate);
+    }
+
+    /**
+     * Writes the document on the stream. The stream is not closed.
+     *
+     * @param formsAsXls   the export. Must not be modified until the future is completed.
+     * @param outputStream where the document is written.
+     * @return the metrics of the export. Completed exceptionally with an {@link InvalidXlsElementException} if the document cannot be generated,
+     * with a {@link RejectedExecutionException} if too many exports are waiting, or with the {@link Error} thrown by the export.
+     */
+    public CompletableFuture<ExportReport> submit(FormsAsXls formsAsXls, OutputStream outputStream) {
+        return submit(() -> formsAsXls.generate(outputStream));
+    }
+
+    private <T> CompletableFuture<T> submit(Export<T> export) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                future.complete(export.run());
+            } catch (Throwable e) {
+                // Errors too, as an out of memory on a large export: the task would keep them and the future would never be completed.
+                future.completeExceptionally(e);
+            }
+            return null;
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            XlsExporterLog.warning(this.getClass().getName(), "Export rejected, " + executor.getQueue().size() + " exports waiting.");
+            future.completeExceptionally(e);
+            return future;
+        }
+        future.whenComplete((result, exception) -> {
+            if (future.isCancelled()) {
+                task.cancel(true);
+                executor.remove(task);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return exports waiting to be run.
+     */
+    public int getQueuedExports() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return exports being run.
+     */
+    public int getRunningExports() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Rejects new exports. Exports already submitted are completed.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Rejects new exports and waits until the submitted ones are completed.
+     *
+     * @param timeout maximum time to wait.
+     * @param unit    unit of the timeout.
+     * @return false if the timeout elapsed before all exports were completed.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean close(long timeout, TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Virtual threads are only available on Java 21 or newer, therefore they are created by reflection.
+     */
+    private static ThreadFactory createThreadFactory() {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            final AtomicInteger threads = new AtomicInteger();
+            return runnable -> {
+                final Thread thread = new Thread(runnable, THREAD_NAME + threads.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+
+    @FunctionalInterface
+    private interface Export<T> {
+        T run() throws InvalidXlsElementException;
+    }
+}
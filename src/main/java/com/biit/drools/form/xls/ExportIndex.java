@@ -0,0 +1,353 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.SheetVisibility;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hidden sheet of an appendable document with everything needed to add new forms later: the layout, the header of each form, the sheets and the
+ * order of their rows, and the styles used. Records are only added at the end, so updating the index depends on the new forms only.
+ */
+final class ExportIndex {
+    static final String SHEET_NAME = "export_index";
+
+    private static final int LAYOUT_ROW = 0;
+    private static final int STYLES_ROW = 1;
+    private static final int VARIABLES_ROW = 2;
+    // Records of an empty index.
+    static final int FIRST_RECORD_ROW = 3;
+    private static final int MAX_RECORD_VALUES = 4;
+
+    private static final String LAYOUT = "layout";
+    private static final String STYLES = "styles";
+    private static final String VARIABLES = "variables";
+    private static final String HEADER = "header";
+    private static final String SHEET = "sheet";
+    private static final String QUESTION = "question";
+    private static final String VARIABLE = "variable";
+
+    private final Sheet sheet;
+    private int nextRow;
+
+    private XlsLayout layout;
+    private boolean variables;
+    private final List<String> headers = new ArrayList<>();
+    private final Map<CompositeKey, IndexedSheet> sheets = new LinkedHashMap<>();
+    private final List<IndexedVariable> indexedVariables = new ArrayList<>();
+    private ExportContext context;
+
+    private ExportIndex(Sheet sheet) {
+        this.sheet = sheet;
+    }
+
+    /**
+     * Adds an empty index to a new document.
+     *
+     * @param context   the export, with the styles to reuse when appending.
+     * @param layout    the layout of the document.
+     * @param variables if the document has a variables sheet.
+     * @return the index, where the content of the document must be recorded.
+     */
+    static ExportIndex create(ExportContext context, XlsLayout layout, boolean variables) {
+        final Workbook workbook = context.getWorkbook();
+        final ExportIndex exportIndex = new ExportIndex(workbook.createSheet(SHEET_NAME));
+        workbook.setSheetVisibility(workbook.getSheetIndex(exportIndex.sheet), SheetVisibility.VERY_HIDDEN);
+        exportIndex.layout = layout;
+        exportIndex.variables = variables;
+        exportIndex.context = context;
+        exportIndex.addRecord(LAYOUT, layout.name());
+        exportIndex.addRecord(STYLES, String.valueOf(context.getTitleStyle().getIndex()), String.valueOf(context.getAnswerLabelsStyle().getIndex()),
+                String.valueOf(context.getContentStyle().getIndex()));
+        exportIndex.addRecord(VARIABLES, String.valueOf(variables));
+        return exportIndex;
+    }
+
+    /**
+     * Reads the index of an existing document.
+     *
+     * @param workbook the document.
+     * @param metrics  metrics of the export that appends the forms.
+     * @return the index.
+     * @throws InvalidXlsElementException if the document was not generated as appendable.
+     */
+    static ExportIndex read(Workbook workbook, ExportMetrics metrics) throws InvalidXlsElementException {
+        final Sheet sheet = workbook.getSheet(SHEET_NAME);
+        if (sheet == null) {
+            throw new InvalidXlsElementException("The document was not generated as appendable.");
+        }
+        final ExportIndex exportIndex = new ExportIndex(sheet);
+        final String layoutName = exportIndex.require(exportIndex.getRecord(LAYOUT_ROW, LAYOUT).next(), LAYOUT_ROW, LAYOUT);
+        try {
+            exportIndex.layout = XlsLayout.valueOf(layoutName);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidXlsElementException(getError(LAYOUT_ROW, "unknown layout '" + layoutName + "'"), e);
+        }
+        final Iterator<String> styles = exportIndex.getRecord(STYLES_ROW, STYLES);
+        exportIndex.context = new ExportContext(workbook, metrics, exportIndex.getStyle(workbook, styles.next()),
+                exportIndex.getStyle(workbook, styles.next()), exportIndex.getStyle(workbook, styles.next()));
+        exportIndex.variables = Boolean.parseBoolean(exportIndex.require(exportIndex.getRecord(VARIABLES_ROW, VARIABLES).next(), VARIABLES_ROW,
+                VARIABLES));
+        for (int rowNumber = FIRST_RECORD_ROW; rowNumber <= sheet.getLastRowNum(); rowNumber++) {
+            exportIndex.readRecord(rowNumber);
+        }
+        exportIndex.nextRow = sheet.getLastRowNum() + 1;
+        return exportIndex;
+    }
+
+    private CellStyle getStyle(Workbook workbook, String value) throws InvalidXlsElementException {
+        final int index;
+        try {
+            index = Integer.parseInt(require(value, STYLES_ROW, STYLES));
+        } catch (NumberFormatException e) {
+            throw new InvalidXlsElementException(getError(STYLES_ROW, "invalid style '" + value + "'"), e);
+        }
+        if (index < 0 || index >= workbook.getNumCellStyles()) {
+            throw new InvalidXlsElementException(getError(STYLES_ROW, "style " + index + " not on the document"));
+        }
+        return workbook.getCellStyleAt(index);
+    }
+
+    private void readRecord(int rowNumber) throws InvalidXlsElementException {
+        final Row row = sheet.getRow(rowNumber);
+        if (row == null) {
+            throw new InvalidXlsElementException(getError(rowNumber, "missing record"));
+        }
+        final String type = getValue(row, 0);
+        final Iterator<String> values = getValues(row);
+        if (HEADER.equals(type)) {
+            headers.add(values.next());
+        } else if (SHEET.equals(type)) {
+            final CompositeKey sheetKey = new CompositeKey(values.next(), values.next());
+            sheets.put(sheetKey, new IndexedSheet(require(values.next(), rowNumber, SHEET)));
+        } else if (QUESTION.equals(type)) {
+            final IndexedSheet indexedSheet = sheets.get(new CompositeKey(values.next(), values.next()));
+            if (indexedSheet == null) {
+                throw new InvalidXlsElementException(getError(rowNumber, "question without sheet"));
+            }
+            indexedSheet.questions.add(new IndexedQuestion(require(values.next(), rowNumber, QUESTION), values.next()));
+        } else if (VARIABLE.equals(type)) {
+            indexedVariables.add(new IndexedVariable(require(values.next(), rowNumber, VARIABLE), require(values.next(), rowNumber, VARIABLE),
+                    values.next()));
+        } else {
+            throw new InvalidXlsElementException(getError(rowNumber, "unknown record '" + type + "'"));
+        }
+    }
+
+    /**
+     * Values of one of the first records, checking its type.
+     */
+    private Iterator<String> getRecord(int rowNumber, String type) throws InvalidXlsElementException {
+        final Row row = sheet.getRow(rowNumber);
+        if (row == null || !type.equals(getValue(row, 0))) {
+            throw new InvalidXlsElementException(getError(rowNumber, "missing '" + type + "' record"));
+        }
+        return getValues(row);
+    }
+
+    /**
+     * Values of a record, after its type. Missing cells are null values.
+     */
+    private Iterator<String> getValues(Row row) throws InvalidXlsElementException {
+        final List<String> values = new ArrayList<>(MAX_RECORD_VALUES);
+        for (int column = 1; column <= MAX_RECORD_VALUES; column++) {
+            values.add(getValue(row, column));
+        }
+        return values.iterator();
+    }
+
+    private String getValue(Row row, int column) throws InvalidXlsElementException {
+        final Cell cell = row.getCell(column);
+        if (cell == null || cell.getCellType() == CellType.BLANK) {
+            return null;
+        }
+        if (cell.getCellType() != CellType.STRING) {
+            throw new InvalidXlsElementException(getError(row.getRowNum(), "cell " + column + " is not a text"));
+        }
+        return cell.getStringCellValue();
+    }
+
+    /**
+     * @return the value, if not null.
+     * @throws InvalidXlsElementException naming the record, if the value is missing.
+     */
+    private String require(String value, int rowNumber, String type) throws InvalidXlsElementException {
+        if (value == null) {
+            throw new InvalidXlsElementException(getError(rowNumber, "missing value of the '" + type + "' record"));
+        }
+        return value;
+    }
+
+    private static String getError(int rowNumber, String problem) {
+        return "Invalid index on the document, " + problem + " on row " + rowNumber + ".";
+    }
+
+    private void addRecord(String... values) {
+        final Row row = sheet.createRow(nextRow++);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                row.createCell(i).setCellValue(values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return records on the index, including the first ones with the layout, the styles and the variables.
+     */
+    int getRecords() {
+        return nextRow;
+    }
+
+    XlsLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Context of the export that reuses the styles of the document, instead of adding new ones each time forms are appended.
+     *
+     * @return the context.
+     */
+    ExportContext getContext() {
+        return context;
+    }
+
+    boolean hasVariables() {
+        return variables;
+    }
+
+    List<String> getHeaders() {
+        return headers;
+    }
+
+    Map<CompositeKey, IndexedSheet> getSheets() {
+        return sheets;
+    }
+
+    List<IndexedVariable> getVariables() {
+        return indexedVariables;
+    }
+
+    void setVariables(boolean variables) {
+        if (this.variables != variables) {
+            this.variables = variables;
+            sheet.getRow(VARIABLES_ROW).getCell(1).setCellValue(String.valueOf(variables));
+        }
+    }
+
+    void addHeader(String header) {
+        headers.add(header);
+        addRecord(HEADER, header);
+    }
+
+    void addSheet(CompositeKey key, String sheetName) {
+        sheets.put(key, new IndexedSheet(sheetName));
+        addRecord(SHEET, key.getFirst(), key.getSecond(), sheetName);
+    }
+
+    void addQuestion(CompositeKey sheetKey, String xpath, String label) {
+        addRecord(QUESTION, sheetKey.getFirst(), sheetKey.getSecond(), xpath, label);
+    }
+
+    void addVariable(String xpath, String key, String scope) {
+        addRecord(VARIABLE, xpath, key, scope);
+    }
+
+    /**
+     * An answers sheet and its question rows, in order.
+     */
+    static final class IndexedSheet {
+        private final String name;
+        private final List<IndexedQuestion> questions = new ArrayList<>();
+
+        private IndexedSheet(String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        List<IndexedQuestion> getQuestions() {
+            return questions;
+        }
+    }
+
+    /**
+     * A question row.
+     */
+    static final class IndexedQuestion {
+        private final String xpath;
+        private final String label;
+
+        private IndexedQuestion(String xpath, String label) {
+            this.xpath = xpath;
+            this.label = label;
+        }
+
+        String getXpath() {
+            return xpath;
+        }
+
+        String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * A variable row.
+     */
+    static final class IndexedVariable {
+        private final String xpath;
+        private final String key;
+        private final String scope;
+
+        private IndexedVariable(String xpath, String key, String scope) {
+            this.xpath = xpath;
+            this.key = key;
+            this.scope = scope;
+        }
+
+        String getXpath() {
+            return xpath;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        String getScope() {
+            return scope;
+        }
+    }
+}
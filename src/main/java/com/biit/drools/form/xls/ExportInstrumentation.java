@@ -0,0 +1,72 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * Receives the metrics of each export. All methods are called once the export has finished, on the thread that generated the document. The
+ * default implementation ignores all of them.
+ *
+ * @see MetricsInstrumentation
+ */
+public interface ExportInstrumentation {
+
+    /**
+     * Ignores all metrics.
+     */
+    ExportInstrumentation NO_OP = new ExportInstrumentation() {
+    };
+
+    /**
+     * Called for each phase of the export that has been executed.
+     *
+     * @param phase the phase.
+     * @param nanos time spent on the phase.
+     */
+    default void phaseCompleted(ExportPhase phase, long nanos) {
+    }
+
+    /**
+     * Called for each counter of the export.
+     *
+     * @param counter the counter.
+     * @param value   its value.
+     */
+    default void counted(ExportCounter counter, long value) {
+    }
+
+    /**
+     * Called once the document has been written, after all phases and counters.
+     *
+     * @param report all the metrics of the export.
+     */
+    default void exportCompleted(ExportReport report) {
+    }
+
+    /**
+     * Called if the document cannot be generated. Phases and counters are not reported separately.
+     *
+     * @param report    the metrics until the error.
+     * @param exception the error.
+     */
+    default void exportFailed(ExportReport report, Exception exception) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * Collects the metrics of a single export. The time is always assigned to the current phase, so nested phases (as resizing the columns while
+ * writing a sheet) are not counted twice. Not thread safe, it is only used by the thread that writes the document.
+ */
+final class ExportMetrics {
+    private final long[] nanos = new long[ExportPhase.values().length];
+    private final long[] counters = new long[ExportCounter.values().length];
+    private ExportPhase phase = null;
+    private long phaseStart;
+
+    /**
+     * Ends the current phase and starts a new one.
+     *
+     * @param nextPhase the phase to start. Null to stop measuring.
+     * @return the phase that has been ended, to be restored after a nested phase.
+     */
+    ExportPhase startPhase(ExportPhase nextPhase) {
+        final long now = System.nanoTime();
+        final ExportPhase previousPhase = phase;
+        if (previousPhase != null) {
+            nanos[previousPhase.ordinal()] += now - phaseStart;
+        }
+        phase = nextPhase;
+        phaseStart = now;
+        return previousPhase;
+    }
+
+    void add(ExportCounter counter, long value) {
+        counters[counter.ordinal()] += value;
+    }
+
+    void increment(ExportCounter counter) {
+        counters[counter.ordinal()]++;
+    }
+
+    long get(ExportCounter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    ExportReport getReport() {
+        return new ExportReport(nanos, counters);
+    }
+
+    /**
+     * Ends the current phase and sends all the metrics to the instrumentation.
+     *
+     * @return the report of the export.
+     */
+    ExportReport completed(ExportInstrumentation instrumentation) {
+        startPhase(null);
+        final ExportReport report = getReport();
+        for (ExportPhase exportPhase : ExportPhase.values()) {
+            if (report.getNanos(exportPhase) > 0) {
+                instrumentation.phaseCompleted(exportPhase, report.getNanos(exportPhase));
+            }
+        }
+        for (ExportCounter counter : ExportCounter.values()) {
+            instrumentation.counted(counter, report.getCount(counter));
+        }
+        instrumentation.exportCompleted(report);
+        return report;
+    }
+
+    ExportReport failed(ExportInstrumentation instrumentation, Exception exception) {
+        startPhase(null);
+        final ExportReport report = getReport();
+        instrumentation.exportFailed(report, exception);
+        return report;
+    }
+}
@@ -0,0 +1,73 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * Phases of an export, measured by {@link ExportInstrumentation}. Phases do not overlap: the time of a phase never includes the time of another one.
+ */
+public enum ExportPhase {
+
+    /**
+     * Reading the forms and getting their values, including the parsing of the forms read while exporting.
+     */
+    READ_FORMS("read_forms"),
+
+    /**
+     * Reading an existing document to append forms to it.
+     */
+    READ_DOCUMENT("read_document"),
+
+    /**
+     * Collecting the sheets and rows of the forms, and adding the values of each form to them as soon as it is read.
+     */
+    LAYOUT("layout"),
+
+    /**
+     * Creating the sheets, rows and cells.
+     */
+    WRITE_CELLS("write_cells"),
+
+    /**
+     * Setting the width of the columns.
+     */
+    RESIZE_COLUMNS("resize_columns"),
+
+    /**
+     * Writing the hidden index of appendable documents.
+     */
+    WRITE_INDEX("write_index"),
+
+    /**
+     * Serializing the workbook to the output.
+     */
+    WRITE_DOCUMENT("write_document");
+
+    private final String metricName;
+
+    ExportPhase(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,228 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedCategory;
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.DroolsSubmittedQuestion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Export plans of the form definitions of an export. The submitted forms come from a few definitions, identified by the name of the form, so the
+ * sheets and question rows of a definition are compiled once, on its first form, and each other form only reads its answers.
+ * <p>
+ * A plan is only used by the forms with the same categories and questions, therefore forms with a different version of a definition have their
+ * own plan. Forms are extracted concurrently, so the plans are thread safe.
+ */
+final class ExportPlans {
+    private final Map<String, List<Plan>> plans = new ConcurrentHashMap<>();
+    private int size = 0;
+
+    /**
+     * Gets the plan of a form, or compiles it if no other form has the same categories and questions.
+     *
+     * @param formIndex the form.
+     * @return the plan of the form.
+     */
+    Plan getPlan(FormIndex formIndex) {
+        final List<Plan> candidates = plans.computeIfAbsent(String.valueOf(formIndex.getForm().getName()), name -> new CopyOnWriteArrayList<>());
+        for (Plan plan : candidates) {
+            if (plan.matches(formIndex)) {
+                return plan;
+            }
+        }
+        synchronized (this) {
+            // Compiled by another thread meanwhile.
+            for (Plan plan : candidates) {
+                if (plan.matches(formIndex)) {
+                    return plan;
+                }
+            }
+            final Plan plan = Plan.of(formIndex);
+            candidates.add(plan);
+            size++;
+            return plan;
+        }
+    }
+
+    /**
+     * @return number of compiled plans.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Categories of a form with at least one question, with the name of their sheet, and their questions, in the order they must be written.
+     */
+    static final class Plan {
+        private final String formName;
+        private final CompositeKey[] sheetKeys;
+        private final String[] sheetTexts;
+        private final String[] sheetNames;
+        private final int[] categoryEnds;
+        private final String[] xpaths;
+        private final String[] labels;
+        private final boolean catalogued;
+
+        /**
+         * @param sheetKeys    text of the form and name of each category.
+         * @param sheetTexts   text of each category.
+         * @param categoryEnds index after the last question of each category.
+         * @param xpaths       xpath of each question.
+         * @param labels       text of each question.
+         */
+        Plan(CompositeKey[] sheetKeys, String[] sheetTexts, int[] categoryEnds, String[] xpaths, String[] labels) {
+            this(null, sheetKeys, sheetTexts, categoryEnds, xpaths, labels, false);
+        }
+
+        private Plan(String formName, CompositeKey[] sheetKeys, String[] sheetTexts, int[] categoryEnds, String[] xpaths, String[] labels,
+                     boolean catalogued) {
+            this.formName = formName;
+            this.sheetKeys = sheetKeys;
+            this.sheetTexts = sheetTexts;
+            this.sheetNames = new String[sheetTexts.length];
+            for (int i = 0; i < sheetTexts.length; i++) {
+                sheetNames[i] = FormsLayout.parseInvalidCharacters(sheetTexts[i]);
+            }
+            this.categoryEnds = categoryEnds;
+            this.xpaths = xpaths;
+            this.labels = labels;
+            this.catalogued = catalogued;
+        }
+
+        private static Plan of(FormIndex formIndex) {
+            final DroolsSubmittedForm droolsSubmittedForm = formIndex.getForm();
+            final List<CompositeKey> sheetKeys = new ArrayList<>();
+            final List<String> sheetTexts = new ArrayList<>();
+            final List<Integer> categoryEnds = new ArrayList<>();
+            final List<String> xpaths = new ArrayList<>();
+            final List<String> labels = new ArrayList<>();
+            for (FormIndex.IndexedCategory indexedCategory : formIndex.getCategories()) {
+                if (indexedCategory.getQuestions().length > 0) {
+                    final DroolsSubmittedCategory category = indexedCategory.getCategory();
+                    sheetKeys.add(new CompositeKey(droolsSubmittedForm.getText(), category.getName()));
+                    sheetTexts.add(category.getText());
+                    for (DroolsSubmittedQuestion question : indexedCategory.getQuestions()) {
+                        xpaths.add(question.getXPath());
+                        labels.add(question.getText());
+                    }
+                    categoryEnds.add(xpaths.size());
+                }
+            }
+            final int[] ends = new int[categoryEnds.size()];
+            for (int i = 0; i < ends.length; i++) {
+                ends[i] = categoryEnds.get(i);
+            }
+            return new Plan(droolsSubmittedForm.getName(), sheetKeys.toArray(new CompositeKey[0]), sheetTexts.toArray(new String[0]), ends,
+                    xpaths.toArray(new String[0]), labels.toArray(new String[0]), true);
+        }
+
+        /**
+         * Compares the categories and questions of a form with the plan, without creating any object but the xpaths.
+         */
+        private boolean matches(FormIndex formIndex) {
+            final DroolsSubmittedForm droolsSubmittedForm = formIndex.getForm();
+            if (!Objects.equals(formName, droolsSubmittedForm.getName())) {
+                return false;
+            }
+            int category = 0;
+            int question = 0;
+            for (FormIndex.IndexedCategory indexedCategory : formIndex.getCategories()) {
+                final DroolsSubmittedQuestion[] questions = indexedCategory.getQuestions();
+                if (questions.length == 0) {
+                    continue;
+                }
+                if (category == sheetKeys.length || categoryEnds[category] - question != questions.length
+                        || !Objects.equals(sheetKeys[category].getSecond(), indexedCategory.getCategory().getName())
+                        || !Objects.equals(sheetKeys[category].getFirst(), droolsSubmittedForm.getText())
+                        || !Objects.equals(sheetTexts[category], indexedCategory.getCategory().getText())) {
+                    return false;
+                }
+                for (DroolsSubmittedQuestion droolsSubmittedQuestion : questions) {
+                    if (!Objects.equals(labels[question], droolsSubmittedQuestion.getText())
+                            || !Objects.equals(xpaths[question], droolsSubmittedQuestion.getXPath())) {
+                        return false;
+                    }
+                    question++;
+                }
+                category++;
+            }
+            return category == sheetKeys.length;
+        }
+
+        /**
+         * @return false for the plans of values read from a cache, that belong to a single form.
+         */
+        boolean isCatalogued() {
+            return catalogued;
+        }
+
+        int getCategories() {
+            return sheetKeys.length;
+        }
+
+        CompositeKey getSheetKey(int category) {
+            return sheetKeys[category];
+        }
+
+        String getSheetText(int category) {
+            return sheetTexts[category];
+        }
+
+        /**
+         * @return the text of the category without the characters not allowed on the name of a sheet.
+         */
+        String getSheetName(int category) {
+            return sheetNames[category];
+        }
+
+        int getFirstQuestion(int category) {
+            return category == 0 ? 0 : categoryEnds[category - 1];
+        }
+
+        /**
+         * @return index after the last question of the category.
+         */
+        int getQuestionsEnd(int category) {
+            return categoryEnds[category];
+        }
+
+        int getQuestions() {
+            return xpaths.length;
+        }
+
+        String getXpath(int question) {
+            return xpaths[question];
+        }
+
+        String getLabel(int question) {
+            return labels[question];
+        }
+    }
+}
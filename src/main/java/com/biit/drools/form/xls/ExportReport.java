@@ -0,0 +1,76 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Time spent on each phase of an export and its counters.
+ */
+public final class ExportReport {
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    private final long[] nanos;
+    private final long[] counters;
+
+    ExportReport(long[] nanos, long[] counters) {
+        this.nanos = Arrays.copyOf(nanos, nanos.length);
+        this.counters = Arrays.copyOf(counters, counters.length);
+    }
+
+    /**
+     * @param phase the phase.
+     * @return time spent on the phase, in nanoseconds. 0 if it has not been executed.
+     */
+    public long getNanos(ExportPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * @return time spent on all phases, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (long phaseNanos : nanos) {
+            total += phaseNanos;
+        }
+        return total;
+    }
+
+    public long getCount(ExportCounter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder text = new StringBuilder("ExportReport{");
+        for (ExportPhase phase : ExportPhase.values()) {
+            text.append(phase.getMetricName()).append("_ms=").append(String.format(Locale.ROOT, "%.3f", getNanos(phase) / NANOS_PER_MILLI)).append(", ");
+        }
+        for (ExportCounter counter : ExportCounter.values()) {
+            text.append(counter.getMetricName()).append('=').append(getCount(counter)).append(", ");
+        }
+        text.setLength(text.length() - 2);
+        return text.append('}').toString();
+    }
+}
@@ -0,0 +1,118 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.DroolsSubmittedQuestion;
+import com.biit.form.submitted.implementation.SubmittedObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hash of everything used to extract the values of a form: the elements of the hierarchy with their xpaths, names, texts and answers, and the
+ * variables. Two forms with the same content have the same fingerprint, even if they are different objects or have been parsed again. The xpath
+ * keeps apart forms with the same elements nested in a different way, that would have other rows.
+ */
+final class FormFingerprint {
+    private static final String ALGORITHM = "SHA-256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int NIBBLE_BITS = 4;
+    private static final int NIBBLE_MASK = 0x0F;
+    private static final int INT_BYTES = 4;
+    private static final int BYTE_BITS = 8;
+    private static final int NULL_LENGTH = -1;
+    private static final int END_OF_ELEMENT = -2;
+
+    private final MessageDigest digest;
+
+    private FormFingerprint() {
+        try {
+            digest = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // Always available on the JVM.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Calculates the fingerprint of a form.
+     *
+     * @param formIndex the form.
+     * @return the hash as a hexadecimal text.
+     */
+    static String of(FormIndex formIndex) {
+        final FormFingerprint fingerprint = new FormFingerprint();
+        for (SubmittedObject element : formIndex.getElements()) {
+            fingerprint.update(element.getClass().getSimpleName());
+            fingerprint.update(element.getXPath());
+            fingerprint.update(element.getName());
+            fingerprint.update(element.getText());
+            if (element instanceof DroolsSubmittedQuestion) {
+                for (String answer : ((DroolsSubmittedQuestion) element).getAnswers()) {
+                    fingerprint.update(answer);
+                }
+            }
+            // End of the element, so answers cannot be confused with the next element.
+            fingerprint.update(END_OF_ELEMENT);
+        }
+
+        final DroolsSubmittedForm form = formIndex.getForm();
+        if (form.getVariablesValue() != null) {
+            for (String xpath : form.getFormVariables().keySet()) {
+                fingerprint.update(xpath);
+                for (String key : form.getFormVariables().get(xpath).keySet()) {
+                    fingerprint.update(key);
+                    fingerprint.update(String.valueOf(form.getFormVariables().get(xpath).get(key)));
+                }
+                fingerprint.update(END_OF_ELEMENT);
+            }
+        }
+        return toHex(fingerprint.digest.digest());
+    }
+
+    private void update(String text) {
+        if (text == null) {
+            update(NULL_LENGTH);
+            return;
+        }
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        update(bytes.length);
+        digest.update(bytes);
+    }
+
+    private void update(int value) {
+        for (int i = INT_BYTES - 1; i >= 0; i--) {
+            digest.update((byte) (value >>> (i * BYTE_BITS)));
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        final char[] text = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            text[i * 2] = HEX_DIGITS[(bytes[i] >> NIBBLE_BITS) & NIBBLE_MASK];
+            text[i * 2 + 1] = HEX_DIGITS[bytes[i] & NIBBLE_MASK];
+        }
+        return new String(text);
+    }
+}
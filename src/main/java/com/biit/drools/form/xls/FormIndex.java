@@ -0,0 +1,155 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedCategory;
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.DroolsSubmittedQuestion;
+import com.biit.form.submitted.implementation.SubmittedObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flattened view of a form, built walking its hierarchy only once. Categories keep the order of
+ * {@code getAllChildrenInHierarchy(DroolsSubmittedCategory.class)} and each one has its questions in the order of
+ * {@code category.getAllChildrenInHierarchy(DroolsSubmittedQuestion.class)}.
+ */
+final class FormIndex {
+    private static final DroolsSubmittedQuestion[] NO_QUESTIONS = new DroolsSubmittedQuestion[0];
+
+    private final DroolsSubmittedForm form;
+    private final List<IndexedCategory> categories = new ArrayList<>();
+    private final List<SubmittedObject> elements = new ArrayList<>();
+    private Map<String, SubmittedObject> elementsByXpath = null;
+
+    private FormIndex(DroolsSubmittedForm form) {
+        this.form = form;
+    }
+
+    static FormIndex of(DroolsSubmittedForm form) {
+        final FormIndex formIndex = new FormIndex(form);
+        final List<CategoryBuilder> openCategories = new ArrayList<>();
+        final List<CategoryBuilder> builders = new ArrayList<>();
+        formIndex.elements.add(form);
+        formIndex.walk(form, openCategories, builders);
+        for (CategoryBuilder builder : builders) {
+            formIndex.categories.add(new IndexedCategory(builder.category, builder.questions.toArray(NO_QUESTIONS)));
+        }
+        return formIndex;
+    }
+
+    private void walk(SubmittedObject parent, List<CategoryBuilder> openCategories, List<CategoryBuilder> builders) {
+        // Children are declared with the interface type on some versions of the library.
+        for (Object child : parent.getChildren()) {
+            if (!(child instanceof SubmittedObject)) {
+                continue;
+            }
+            final SubmittedObject element = (SubmittedObject) child;
+            elements.add(element);
+            if (element instanceof DroolsSubmittedQuestion) {
+                for (CategoryBuilder openCategory : openCategories) {
+                    openCategory.questions.add((DroolsSubmittedQuestion) element);
+                }
+            }
+            if (element instanceof DroolsSubmittedCategory) {
+                final CategoryBuilder builder = new CategoryBuilder((DroolsSubmittedCategory) element);
+                builders.add(builder);
+                openCategories.add(builder);
+                walk(element, openCategories, builders);
+                openCategories.remove(openCategories.size() - 1);
+            } else {
+                walk(element, openCategories, builders);
+            }
+        }
+    }
+
+    DroolsSubmittedForm getForm() {
+        return form;
+    }
+
+    /**
+     * All categories of the form, including the ones without questions.
+     *
+     * @return the categories in hierarchy order.
+     */
+    List<IndexedCategory> getCategories() {
+        return categories;
+    }
+
+    /**
+     * All elements of the form, starting by the form itself, in hierarchy order.
+     *
+     * @return the elements.
+     */
+    List<SubmittedObject> getElements() {
+        return elements;
+    }
+
+    /**
+     * Same as {@link SubmittedObject#getElement(String)} but without walking the form again for each xpath.
+     *
+     * @param xpath the xpath of the element.
+     * @return the element or null if it does not exist.
+     */
+    SubmittedObject getElement(String xpath) {
+        if (elementsByXpath == null) {
+            elementsByXpath = new HashMap<>();
+            for (SubmittedObject element : elements) {
+                elementsByXpath.putIfAbsent(element.getXPath(), element);
+            }
+        }
+        return elementsByXpath.get(xpath);
+    }
+
+    /**
+     * A category and all the questions inside it.
+     */
+    static final class IndexedCategory {
+        private final DroolsSubmittedCategory category;
+        private final DroolsSubmittedQuestion[] questions;
+
+        private IndexedCategory(DroolsSubmittedCategory category, DroolsSubmittedQuestion[] questions) {
+            this.category = category;
+            this.questions = questions;
+        }
+
+        DroolsSubmittedCategory getCategory() {
+            return category;
+        }
+
+        DroolsSubmittedQuestion[] getQuestions() {
+            return questions;
+        }
+    }
+
+    private static final class CategoryBuilder {
+        private final DroolsSubmittedCategory category;
+        private final List<DroolsSubmittedQuestion> questions = new ArrayList<>();
+
+        private CategoryBuilder(DroolsSubmittedCategory category) {
+            this.category = category;
+        }
+    }
+}
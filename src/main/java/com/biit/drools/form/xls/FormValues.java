@@ -0,0 +1,250 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.DroolsSubmittedQuestion;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Texts of one form, in the order they must be written. Extracting them does not access the workbook, therefore the forms can be extracted in parallel
+ * before a single thread writes the sheets.
+ * <p>
+ * The values are immutable once extracted and can be shared by several exports through a {@link FormValuesCache}, as objects or as bytes.
+ */
+public final class FormValues {
+    private static final String ANSWER_SEPARATOR = ", ";
+    private static final int FORMAT_VERSION = 1;
+    private static final int NULL_LENGTH = -1;
+
+    private ExportPlans.Plan plan = null;
+    private String[] answers = null;
+    private VariableCatalog.Schema variableSchema = null;
+    private String[] variableValues = null;
+
+    private FormValues() {
+    }
+
+    /**
+     * @return the sheets and questions of the form.
+     */
+    ExportPlans.Plan getPlan() {
+        return plan;
+    }
+
+    /**
+     * @return the answers of each question of the plan.
+     */
+    String[] getAnswers() {
+        return answers;
+    }
+
+    /**
+     * Variables of the form, sorted by xpath and name.
+     *
+     * @return the schema of the variables, or null if the form has no variables.
+     */
+    VariableCatalog.Schema getVariableSchema() {
+        return variableSchema;
+    }
+
+    /**
+     * @return the value of each variable of the schema.
+     */
+    String[] getVariableValues() {
+        return variableValues;
+    }
+
+    static FormValues extract(DroolsSubmittedForm droolsSubmittedForm) {
+        return extract(FormIndex.of(droolsSubmittedForm), new ExportPlans(), new VariableCatalog());
+    }
+
+    /**
+     * @param formIndex the form.
+     * @param plans     plans of the form definitions of the export, shared by all its forms.
+     * @param catalog   schemas of the variables of the export, shared by all its forms.
+     * @return the values of the form.
+     */
+    static FormValues extract(FormIndex formIndex, ExportPlans plans, VariableCatalog catalog) {
+        final DroolsSubmittedForm droolsSubmittedForm = formIndex.getForm();
+        final FormValues formValues = new FormValues();
+
+        formValues.plan = plans.getPlan(formIndex);
+        formValues.answers = new String[formValues.plan.getQuestions()];
+        int question = 0;
+        for (FormIndex.IndexedCategory indexedCategory : formIndex.getCategories()) {
+            for (DroolsSubmittedQuestion droolsSubmittedQuestion : indexedCategory.getQuestions()) {
+                formValues.answers[question++] = getAnswersText(droolsSubmittedQuestion);
+            }
+        }
+
+        if (droolsSubmittedForm.getVariablesValue() != null) {
+            formValues.variableSchema = catalog.getSchema(formIndex);
+            formValues.variableValues = formValues.variableSchema.getValues(droolsSubmittedForm.getFormVariables());
+        }
+        return formValues;
+    }
+
+    /**
+     * Serializes the values, for caches that are not kept on the heap.
+     *
+     * @return the values as bytes.
+     */
+    public byte[] toBytes() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(plan.getCategories());
+            for (int category = 0; category < plan.getCategories(); category++) {
+                writeText(output, plan.getSheetKey(category).getFirst());
+                writeText(output, plan.getSheetKey(category).getSecond());
+                writeText(output, plan.getSheetText(category));
+                output.writeInt(plan.getQuestionsEnd(category) - plan.getFirstQuestion(category));
+                for (int question = plan.getFirstQuestion(category); question < plan.getQuestionsEnd(category); question++) {
+                    writeText(output, plan.getXpath(question));
+                    writeText(output, plan.getLabel(question));
+                    writeText(output, answers[question]);
+                }
+            }
+            output.writeInt(variableSchema != null ? variableSchema.size() : NULL_LENGTH);
+            if (variableSchema != null) {
+                for (int i = 0; i < variableSchema.size(); i++) {
+                    writeText(output, variableSchema.getRowKey(i).getFirst());
+                    writeText(output, variableSchema.getKey(i));
+                    writeText(output, variableSchema.getScope(i));
+                    writeText(output, variableValues[i]);
+                }
+            }
+        } catch (IOException e) {
+            // Never thrown by a ByteArrayOutputStream.
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the values serialized by {@link #toBytes()}.
+     *
+     * @param bytes the serialized values.
+     * @return the values.
+     * @throws IOException if the bytes are not valid values.
+     */
+    public static FormValues fromBytes(byte[] bytes) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unknown format of the form values.");
+            }
+            // The plan of values read from a cache belongs only to this form.
+            final int categories = input.readInt();
+            final CompositeKey[] sheetKeys = new CompositeKey[categories];
+            final String[] sheetTexts = new String[categories];
+            final int[] categoryEnds = new int[categories];
+            final List<String> xpaths = new ArrayList<>();
+            final List<String> labels = new ArrayList<>();
+            final List<String> answers = new ArrayList<>();
+            for (int i = 0; i < categories; i++) {
+                sheetKeys[i] = new CompositeKey(readText(input), readText(input));
+                sheetTexts[i] = readText(input);
+                final int questions = input.readInt();
+                for (int j = 0; j < questions; j++) {
+                    xpaths.add(readText(input));
+                    labels.add(readText(input));
+                    answers.add(readText(input));
+                }
+                categoryEnds[i] = xpaths.size();
+            }
+            final int variables = input.readInt();
+            final FormValues formValues = new FormValues();
+            formValues.plan = new ExportPlans.Plan(sheetKeys, sheetTexts, categoryEnds, xpaths.toArray(new String[0]), labels.toArray(new String[0]));
+            formValues.answers = answers.toArray(new String[0]);
+            if (variables != NULL_LENGTH) {
+                // The schema of values read from a cache belongs only to this form.
+                final CompositeKey[] rowKeys = new CompositeKey[variables];
+                final String[] keys = new String[variables];
+                final String[] scopes = new String[variables];
+                formValues.variableValues = new String[variables];
+                for (int i = 0; i < variables; i++) {
+                    final String xpath = readText(input);
+                    keys[i] = readText(input);
+                    rowKeys[i] = new CompositeKey(xpath, keys[i]);
+                    scopes[i] = readText(input);
+                    formValues.variableValues[i] = readText(input);
+                }
+                formValues.variableSchema = new VariableCatalog.Schema(rowKeys, keys, scopes);
+            }
+            return formValues;
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid form values.", e);
+        }
+    }
+
+    private static void writeText(DataOutputStream output, String text) throws IOException {
+        if (text == null) {
+            output.writeInt(NULL_LENGTH);
+            return;
+        }
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readText(DataInputStream input) throws IOException {
+        final int length = input.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Invalid text length " + length + ".");
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String getAnswersText(DroolsSubmittedQuestion question) {
+        // Add answers
+        final List<String> answers = new ArrayList<>(question.getAnswers());
+        Collections.sort(answers);
+        final StringBuilder stringBuilder = new StringBuilder();
+        for (String answer : answers) {
+            if (answer != null) {
+                stringBuilder.append(answer);
+                stringBuilder.append(ANSWER_SEPARATOR);
+            }
+        }
+        // Remove last separator
+        if (stringBuilder.length() > 0) {
+            return stringBuilder.substring(0, stringBuilder.length() - ANSWER_SEPARATOR.length());
+        }
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * Cache of the values of the forms, shared by several exports. The key is a hash of the content of the form, so the same submitted form found on
+ * different reports is only processed once. Implementations must be thread safe and limit their size.
+ */
+public interface FormValuesCache {
+
+    /**
+     * Gets the values of a form.
+     *
+     * @param fingerprint hash of the content of the form.
+     * @return the values or null if they are not cached.
+     */
+    FormValues get(String fingerprint);
+
+    /**
+     * Stores the values of a form, evicting other values if the cache is full.
+     *
+     * @param fingerprint hash of the content of the form.
+     * @param formValues  the values.
+     */
+    void put(String fingerprint, FormValues formValues);
+
+    /**
+     * Current metrics of the cache.
+     *
+     * @return hits, misses and evictions since the cache was created.
+     */
+    CacheStatistics getStatistics();
+}
@@ -0,0 +1,206 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import com.biit.drools.form.xls.logger.XlsExporterLog;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the forms of a {@link FormsAsXls} as plain tables instead of a workbook: one table for each category sheet, and one more for the variables,
+ * in any of the {@link TableFormat}s. The forms are read and laid out by the same {@link DroolsFormConversor}, so the tables have the same rows, in
+ * the same order, as the sheets of the workbook. No styles are applied, no column widths are calculated and tables are never split in pages, as
+ * they have no size limits. Values are written as they are on the forms.
+ */
+public class FormsAsTables {
+    private static final String ZIP_EXTENSION = ".zip";
+    private static final String DUPLICATED_NAME = "%s (%d)";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FormsAsXls formsAsXls;
+    private TableFormat format = TableFormat.CSV;
+
+    /**
+     * @param formsAsXls the forms and the settings of the export (layout, parallelism, cache and instrumentation).
+     */
+    public FormsAsTables(FormsAsXls formsAsXls) {
+        this.formsAsXls = formsAsXls;
+    }
+
+    public TableFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(TableFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Writes the tables on the stream as a zip file, with one entry for each table. The stream is not closed.
+     *
+     * @param outputStream where the zip file is written.
+     * @return the time and counters of the export, also sent to the instrumentation of the {@link FormsAsXls}.
+     * @throws InvalidXlsElementException if the forms cannot be read or the tables cannot be written.
+     */
+    public ExportReport generate(OutputStream outputStream) throws InvalidXlsElementException {
+        final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+        return export(new TableOutput() {
+            @Override
+            public OutputStream open(String name) throws IOException {
+                zipOutputStream.putNextEntry(new ZipEntry(name));
+                return zipOutputStream;
+            }
+
+            @Override
+            public void close(OutputStream tableOutputStream) throws IOException {
+                zipOutputStream.closeEntry();
+            }
+
+            @Override
+            public void finish() throws IOException {
+                // Not closed, as it would close the stream.
+                zipOutputStream.finish();
+            }
+        });
+    }
+
+    /**
+     * Writes the tables as a zip file.
+     *
+     * @param path the file. The zip extension is added if missing.
+     * @throws IOException                if the file cannot be written.
+     * @throws InvalidXlsElementException if the forms cannot be read or the tables cannot be written.
+     */
+    public void createFile(String path) throws IOException, InvalidXlsElementException {
+        if (!path.endsWith(ZIP_EXTENSION)) {
+            path += ZIP_EXTENSION;
+        }
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(Paths.get(path)), BUFFER_SIZE)) {
+            generate(outputStream);
+        }
+    }
+
+    /**
+     * Writes each table on its own file, named as the sheet of the workbook.
+     *
+     * @param directory an existing folder. Files with the same name are replaced.
+     * @return the time and counters of the export, also sent to the instrumentation of the {@link FormsAsXls}.
+     * @throws InvalidXlsElementException if the forms cannot be read or the tables cannot be written.
+     */
+    public ExportReport createFiles(String directory) throws InvalidXlsElementException {
+        final Path folder = Paths.get(directory);
+        return export(new TableOutput() {
+            @Override
+            public OutputStream open(String name) throws IOException {
+                return Files.newOutputStream(folder.resolve(name));
+            }
+
+            @Override
+            public void close(OutputStream tableOutputStream) throws IOException {
+                tableOutputStream.close();
+            }
+
+            @Override
+            public void finish() {
+                // Each file is closed when completed.
+            }
+        });
+    }
+
+    private ExportReport export(TableOutput output) throws InvalidXlsElementException {
+        final ExportMetrics metrics = new ExportMetrics();
+        final ExportEvent event = new ExportEvent();
+        event.begin();
+        try (FormsLayout formsLayout = formsAsXls.createConversor(false).createLayout(formsAsXls.getForms().iterator(), formsAsXls.getFormHeaders(),
+                metrics)) {
+            metrics.startPhase(ExportPhase.WRITE_CELLS);
+            final TableWriter writer = createWriter();
+            final Set<String> names = new HashSet<>();
+            for (LayoutTable table : LayoutTable.of(formsLayout)) {
+                DroolsFormConversor.checkInterrupted();
+                final OutputStream tableOutputStream = output.open(getFileName(names, table.getName()));
+                final CountingOutputStream countingOutputStream = new CountingOutputStream(tableOutputStream);
+                try {
+                    writer.write(table, countingOutputStream, metrics);
+                } finally {
+                    output.close(tableOutputStream);
+                }
+                metrics.increment(ExportCounter.SHEETS);
+                metrics.add(ExportCounter.BYTES_WRITTEN, countingOutputStream.getCount());
+            }
+            output.finish();
+            metrics.startPhase(null);
+        } catch (InvalidXlsElementException e) {
+            XlsExporterLog.errorMessage(this.getClass().getName(), e);
+            metrics.failed(formsAsXls.getInstrumentation(), e);
+            throw e;
+        } catch (Exception e) {
+            XlsExporterLog.errorMessage(this.getClass().getName(), e);
+            metrics.failed(formsAsXls.getInstrumentation(), e);
+            throw new InvalidXlsElementException(e);
+        }
+        final ExportReport report = metrics.completed(formsAsXls.getInstrumentation());
+        event.end();
+        event.commit(format.name(), formsAsXls.getLayout(), false, report);
+        return report;
+    }
+
+    private TableWriter createWriter() {
+        if (format == TableFormat.COLUMNAR) {
+            return new ColumnarTableWriter();
+        }
+        return new DelimitedTableWriter(format, formsAsXls.getLayout());
+    }
+
+    /**
+     * Name of the table with the extension of the format. Tables with the same name are numbered.
+     */
+    private String getFileName(Set<String> names, String tableName) {
+        String name = tableName;
+        for (int copy = 2; !names.add(name); copy++) {
+            name = String.format(DUPLICATED_NAME, tableName, copy);
+        }
+        return name + format.getExtension();
+    }
+
+    /**
+     * Where the tables of an export are written.
+     */
+    private interface TableOutput {
+
+        OutputStream open(String name) throws IOException;
+
+        void close(OutputStream tableOutputStream) throws IOException;
+
+        void finish() throws IOException;
+    }
+}
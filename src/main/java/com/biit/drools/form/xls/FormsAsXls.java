@@ -25,20 +25,50 @@ import com.biit.drools.form.DroolsSubmittedForm;
 import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
 import com.biit.drools.form.xls.logger.XlsExporterLog;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class FormsAsXls {
-    private List<DroolsSubmittedForm> droolsSubmittedForms;
+    public static final int DEFAULT_ROW_ACCESS_WINDOW = 100;
+    private static final int CHANNEL_BUFFER_SIZE = 64 * 1024;
+
+    private Iterable<DroolsSubmittedForm> droolsSubmittedForms;
     private List<String> formHeaders;
+    private XlsFormat format = XlsFormat.XLS;
+    private XlsLayout layout = XlsLayout.FORMS_AS_COLUMNS;
+    private ColumnWidthStrategy columnWidthStrategy = ColumnWidthStrategy.ESTIMATED;
+    private int parallelism = 1;
+    private int rowAccessWindow = DEFAULT_ROW_ACCESS_WINDOW;
+    private boolean appendable = false;
+    private boolean sharedStrings = true;
+    private FormValuesCache formValuesCache = null;
+    private String spillDirectory = null;
+    private ExportInstrumentation instrumentation = ExportInstrumentation.NO_OP;
 
     public FormsAsXls(DroolsSubmittedForm droolsSubmittedForm, String formHeader) {
-        this.droolsSubmittedForms = new ArrayList<>();
-        droolsSubmittedForms.add(droolsSubmittedForm);
+        final List<DroolsSubmittedForm> forms = new ArrayList<>();
+        forms.add(droolsSubmittedForm);
+        this.droolsSubmittedForms = forms;
         this.formHeaders = new ArrayList<>();
         formHeaders.add(formHeader);
     }
@@ -48,35 +78,350 @@ public class FormsAsXls {
         this.formHeaders = formHeaders;
     }
 
-    public byte[] generate() throws InvalidXlsElementException {
-        try {
-            final HSSFWorkbook workbook = new HSSFWorkbook();
+    /**
+     * Forms read while the document is generated, as the ones of {@link SubmittedFormReader}. Each form is discarded once its values are
+     * extracted. The forms are iterated again each time the document is generated.
+     *
+     * @param droolsSubmittedForms the forms to export.
+     * @param formHeaders          optional header of each form, in the same order.
+     */
+    public FormsAsXls(Iterable<DroolsSubmittedForm> droolsSubmittedForms, List<String> formHeaders) {
+        this.droolsSubmittedForms = droolsSubmittedForms;
+        this.formHeaders = formHeaders;
+    }
 
-            new DroolsFormConversor().createXlsDocument(workbook, droolsSubmittedForms, formHeaders);
+    public XlsFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(XlsFormat format) {
+        this.format = format;
+    }
 
-            final ByteArrayOutputStream fileOut = new ByteArrayOutputStream();
-            workbook.write(fileOut);
-            workbook.close();
+    public XlsLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Orientation of the forms. If the forms do not fit in one sheet, they are split on several sheets.
+     *
+     * @param layout forms as columns (default) or as rows.
+     */
+    public void setLayout(XlsLayout layout) {
+        this.layout = layout;
+    }
 
+    public ColumnWidthStrategy getColumnWidthStrategy() {
+        return columnWidthStrategy;
+    }
+
+    /**
+     * How the width of the columns is calculated. By default, it is estimated from the text length, that does not need any font available.
+     *
+     * @param columnWidthStrategy the strategy.
+     */
+    public void setColumnWidthStrategy(ColumnWidthStrategy columnWidthStrategy) {
+        this.columnWidthStrategy = columnWidthStrategy;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Number of threads used to read the forms. The workbook is always written by a single thread, as POI is not thread safe.
+     *
+     * @param parallelism number of threads. Use {@link Runtime#availableProcessors()} to use all cores.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getRowAccessWindow() {
+        return rowAccessWindow;
+    }
+
+    /**
+     * Number of rows kept in memory per sheet when generating a {@link XlsFormat#XLSX} file. Older rows are flushed to a temporary file.
+     *
+     * @param rowAccessWindow number of rows.
+     */
+    public void setRowAccessWindow(int rowAccessWindow) {
+        this.rowAccessWindow = rowAccessWindow;
+    }
+
+    public boolean isAppendable() {
+        return appendable;
+    }
+
+    /**
+     * Generated documents keep a hidden sheet with the layout of the forms, so new forms can be added later with {@link #append(String)}.
+     *
+     * @param appendable if new forms can be appended to the documents.
+     */
+    public void setAppendable(boolean appendable) {
+        this.appendable = appendable;
+    }
+
+    public boolean isSharedStrings() {
+        return sharedStrings;
+    }
+
+    /**
+     * If true (default), each text of a {@link XlsFormat#XLSX} document is written once on a shared strings table, and cells only reference it.
+     * The table is kept in memory until the document is written. If false, texts are written inside each cell, and only the row access window
+     * is kept in memory. {@link XlsFormat#XLS} documents always have a shared strings table.
+     *
+     * @param sharedStrings if the texts are shared by all cells.
+     */
+    public void setSharedStrings(boolean sharedStrings) {
+        this.sharedStrings = sharedStrings;
+    }
+
+    public FormValuesCache getFormValuesCache() {
+        return formValuesCache;
+    }
+
+    /**
+     * Cache of the values of the forms. Share the same cache between exports to process only once the forms that are on several documents.
+     *
+     * @param formValuesCache the cache, as {@link LruFormValuesCache} or {@link DiskFormValuesCache}. Null to disable it.
+     */
+    public void setFormValuesCache(FormValuesCache formValuesCache) {
+        this.formValuesCache = formValuesCache;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * For exports larger than the heap, the value of each form on each row is kept on a memory-mapped temporary file of this folder until the
+     * sheets are written, instead of on the heap. Only the different texts are kept on the heap. The file is deleted once the document is written.
+     *
+     * @param spillDirectory an existing folder. Null (default) to keep the values on the heap.
+     */
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public ExportInstrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    /**
+     * Receives the time of each phase and the counters of each generated document.
+     *
+     * @param instrumentation the instrumentation, as a {@link MetricsInstrumentation}. Null to disable it.
+     */
+    public void setInstrumentation(ExportInstrumentation instrumentation) {
+        this.instrumentation = instrumentation != null ? instrumentation : ExportInstrumentation.NO_OP;
+    }
+
+    public byte[] generate() throws InvalidXlsElementException {
+        final ByteArrayOutputStream fileOut = new ByteArrayOutputStream();
+        generate(fileOut);
+        return fileOut.toByteArray();
+    }
+
+    /**
+     * Writes the document directly on the stream, without keeping a copy of it in memory. The stream is not closed.
+     *
+     * @param outputStream where the document is written.
+     * @return the time and counters of the export, also sent to the instrumentation.
+     * @throws InvalidXlsElementException if the document cannot be generated or written.
+     */
+    public ExportReport generate(OutputStream outputStream) throws InvalidXlsElementException {
+        final ExportMetrics metrics = new ExportMetrics();
+        final ExportEvent event = new ExportEvent();
+        event.begin();
+        try {
+            final Workbook workbook = createWorkbook();
             try {
-                return fileOut.toByteArray();
+                createConversor(appendable).createXlsDocument(workbook, droolsSubmittedForms.iterator(), formHeaders, metrics);
+                write(workbook, outputStream, metrics);
             } finally {
-                fileOut.close();
+                closeWorkbook(workbook);
             }
+        } catch (InvalidXlsElementException e) {
+            XlsExporterLog.errorMessage(this.getClass().getName(), e);
+            metrics.failed(instrumentation, e);
+            throw e;
         } catch (Exception e) {
             XlsExporterLog.errorMessage(this.getClass().getName(), e);
+            metrics.failed(instrumentation, e);
             throw new InvalidXlsElementException(e);
         }
+        final ExportReport report = metrics.completed(instrumentation);
+        event.end();
+        event.commit(format, layout, false, report);
+        return report;
     }
 
-    public void createFile(String path) throws IOException, InvalidXlsElementException {
-        if (!path.endsWith(".xls")) {
-            path += ".xls";
+    /**
+     * Generates the document on a shared {@link ExportExecutor}, limited to one export per processor. This exporter must not be modified until the
+     * future is completed.
+     *
+     * @return the document.
+     * @see ExportExecutor#submit(FormsAsXls)
+     */
+    public CompletableFuture<byte[]> generateAsync() {
+        return generateAsync(ExportExecutor.getDefault());
+    }
+
+    /**
+     * Generates the document on the executor. This exporter must not be modified until the future is completed.
+     *
+     * @param executor where the export is run.
+     * @return the document.
+     * @see ExportExecutor#submit(FormsAsXls)
+     */
+    public CompletableFuture<byte[]> generateAsync(ExportExecutor executor) {
+        return executor.submit(this);
+    }
+
+    /**
+     * Writes the document on the stream, using the executor. The stream is not closed. This exporter must not be modified until the future is
+     * completed.
+     *
+     * @param executor     where the export is run.
+     * @param outputStream where the document is written.
+     * @return the metrics of the export.
+     * @see ExportExecutor#submit(FormsAsXls, OutputStream)
+     */
+    public CompletableFuture<ExportReport> generateAsync(ExportExecutor executor, OutputStream outputStream) {
+        return executor.submit(this, outputStream);
+    }
+
+    void write(Workbook workbook, OutputStream outputStream, ExportMetrics metrics) throws IOException {
+        metrics.startPhase(ExportPhase.WRITE_DOCUMENT);
+        final WriteDocumentEvent event = new WriteDocumentEvent();
+        event.begin();
+        final CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+        workbook.write(countingOutputStream);
+        metrics.add(ExportCounter.BYTES_WRITTEN, countingOutputStream.getCount());
+        event.end();
+        event.commit(metrics.getReport());
+        metrics.startPhase(null);
+    }
+
+    /**
+     * Writes the document directly on the channel, without keeping a copy of it in memory. The channel is not closed.
+     *
+     * @param channel where the document is written.
+     * @return the time and counters of the export, also sent to the instrumentation.
+     * @throws InvalidXlsElementException if the document cannot be generated or written.
+     */
+    public ExportReport generate(WritableByteChannel channel) throws InvalidXlsElementException {
+        final OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(channel), CHANNEL_BUFFER_SIZE);
+        final ExportReport report = generate(outputStream);
+        try {
+            // Not closed, as it would close the channel.
+            outputStream.flush();
+        } catch (IOException e) {
+            XlsExporterLog.errorMessage(this.getClass().getName(), e);
+            throw new InvalidXlsElementException(e);
+        }
+        return report;
+    }
+
+    /**
+     * Adds the forms to a document generated as appendable (see {@link #setAppendable(boolean)}) with the same layout. Only the new forms are
+     * converted, but the whole document is read and written again.
+     *
+     * @param document     the existing document, in any format.
+     * @param outputStream where the updated document is written. The stream is not closed.
+     * @return the time and counters of the export, also sent to the instrumentation.
+     * @throws InvalidXlsElementException if the document is not appendable or cannot be read or written.
+     */
+    public ExportReport append(InputStream document, OutputStream outputStream) throws InvalidXlsElementException {
+        final ExportMetrics metrics = new ExportMetrics();
+        final ExportEvent event = new ExportEvent();
+        event.begin();
+        metrics.startPhase(ExportPhase.READ_DOCUMENT);
+        XlsFormat documentFormat = format;
+        try (Workbook workbook = WorkbookFactory.create(document)) {
+            documentFormat = workbook instanceof HSSFWorkbook ? XlsFormat.XLS : XlsFormat.XLSX;
+            createConversor(true).appendToXlsDocument(workbook, droolsSubmittedForms.iterator(), formHeaders, metrics);
+            write(workbook, outputStream, metrics);
+        } catch (InvalidXlsElementException e) {
+            XlsExporterLog.errorMessage(this.getClass().getName(), e);
+            metrics.failed(instrumentation, e);
+            throw e;
+        } catch (Exception e) {
+            XlsExporterLog.errorMessage(this.getClass().getName(), e);
+            metrics.failed(instrumentation, e);
+            throw new InvalidXlsElementException(e);
+        }
+        final ExportReport report = metrics.completed(instrumentation);
+        event.end();
+        event.commit(documentFormat, layout, true, report);
+        return report;
+    }
+
+    /**
+     * Adds the forms to an existing file generated as appendable. The file is replaced once the updated document is completely written.
+     *
+     * @param path the file. The extension of the format is added if missing.
+     * @return the time and counters of the export, also sent to the instrumentation.
+     * @throws IOException                if the file cannot be read or replaced.
+     * @throws InvalidXlsElementException if the document is not appendable.
+     */
+    public ExportReport append(String path) throws IOException, InvalidXlsElementException {
+        if (!path.endsWith(format.getExtension())) {
+            path += format.getExtension();
+        }
+        final Path file = Paths.get(path).toAbsolutePath();
+        final Path temporalFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), null);
+        try {
+            final ExportReport report;
+            try (InputStream document = new BufferedInputStream(Files.newInputStream(file));
+                 OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporalFile), CHANNEL_BUFFER_SIZE)) {
+                report = append(document, outputStream);
+            }
+            Files.move(temporalFile, file, StandardCopyOption.REPLACE_EXISTING);
+            return report;
+        } finally {
+            Files.deleteIfExists(temporalFile);
+        }
+    }
+
+    Iterable<DroolsSubmittedForm> getForms() {
+        return droolsSubmittedForms;
+    }
+
+    List<String> getFormHeaders() {
+        return formHeaders;
+    }
+
+    DroolsFormConversor createConversor(boolean appendableDocuments) {
+        return new DroolsFormConversor(layout, columnWidthStrategy, parallelism, appendableDocuments, formValuesCache,
+                spillDirectory == null ? null : Paths.get(spillDirectory));
+    }
+
+    Workbook createWorkbook() {
+        if (format == XlsFormat.XLSX) {
+            return new SXSSFWorkbook(new XSSFWorkbook(), rowAccessWindow, false, sharedStrings);
         }
+        return new HSSFWorkbook();
+    }
 
-        try (FileOutputStream fos = new FileOutputStream(path)) {
-            fos.write(generate());
+    void closeWorkbook(Workbook workbook) throws IOException {
+        if (workbook instanceof SXSSFWorkbook) {
+            // Removes the temporary files of the flushed rows.
+            ((SXSSFWorkbook) workbook).dispose();
         }
+        workbook.close();
     }
 
+    public void createFile(String path) throws IOException, InvalidXlsElementException {
+        if (!path.endsWith(format.getExtension())) {
+            path += format.getExtension();
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            generate(channel);
+        }
+    }
 }
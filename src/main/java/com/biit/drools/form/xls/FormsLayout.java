@@ -0,0 +1,281 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.logger.XlsExporterLog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Headers, sheets and rows of all the forms of an export, independent of the format of the document. Sheets, question rows and variable rows keep
+ * the order of their first appearance on the forms, and each row keeps the value of every form, so the workbooks of {@link DroolsFormConversor} and
+ * the tables of {@link FormsAsTables} have the same rows in the same order.
+ * <p>
+ * Forms are added one by one as they are read, and only their values on the rows are kept: on the heap or, for exports larger than the heap, on a
+ * {@link SpillStore}. The layout must be closed once written, to delete the spill file.
+ */
+final class FormsLayout implements AutoCloseable {
+    static final String QUESTION_LABEL_TITLE = "Question";
+    static final String FORM_LABEL_TITLE = "Form";
+    static final String VARIABLE_LABEL_TITLE = "Variables";
+    static final String VARIABLE_SCOPE_TITLE = "Scope";
+    static final String VARIABLES_SHEET_NAME = "Variables";
+
+    private final List<String> headers;
+    private final Map<CompositeKey, AnswersSheetLayout> sheetsByKey = new HashMap<>();
+    private final List<CompositeKey> sheetKeys = new ArrayList<>();
+    private final List<AnswersSheetLayout> sheets = new ArrayList<>();
+    private final Map<CompositeKey, Integer> variableRowsByKey = new HashMap<>();
+    private final List<CompositeKey> variableKeys = new ArrayList<>();
+    private final List<VariableRowLayout> variableRows = new ArrayList<>();
+    private final Map<ExportPlans.Plan, QuestionRowLayout[]> planRows = new IdentityHashMap<>();
+    private final Map<VariableCatalog.Schema, int[]> schemaRows = new IdentityHashMap<>();
+    private final StringDictionary dictionary = new StringDictionary();
+    private final SpillStore spillStore;
+    private boolean variables = false;
+
+    /**
+     * @param headers header of each form. New forms must be added to the list before their values.
+     */
+    FormsLayout(List<String> headers) {
+        this.headers = headers;
+        this.spillStore = null;
+    }
+
+    /**
+     * @param headers        header of each form. New forms must be added to the list before their values.
+     * @param spillDirectory where the values of the forms are kept out of the heap. If null, they are kept on the heap.
+     * @throws IOException if the spill file cannot be created.
+     */
+    FormsLayout(List<String> headers, Path spillDirectory) throws IOException {
+        this.headers = headers;
+        this.spillStore = spillDirectory == null ? null : new SpillStore(spillDirectory, dictionary);
+    }
+
+    List<String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return the answers sheets, in creation order.
+     */
+    List<AnswersSheetLayout> getSheets() {
+        return sheets;
+    }
+
+    CompositeKey getSheetKey(int sheet) {
+        return sheetKeys.get(sheet);
+    }
+
+    /**
+     * @return the variable rows, in creation order.
+     */
+    List<VariableRowLayout> getVariableRows() {
+        return variableRows;
+    }
+
+    /**
+     * @return the xpath of the element and the name of the variable of a row.
+     */
+    CompositeKey getVariableKey(int row) {
+        return variableKeys.get(row);
+    }
+
+    /**
+     * @return false if no form has variables.
+     */
+    boolean hasVariables() {
+        return variables;
+    }
+
+    void setVariables(boolean variables) {
+        this.variables = variables;
+    }
+
+    StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return the value of each form on a new row. It grows as new forms are added.
+     */
+    ValueColumn createColumn() {
+        if (spillStore != null) {
+            return spillStore.createColumn();
+        }
+        return new ArrayValueColumn(headers.size(), dictionary);
+    }
+
+    /**
+     * @return bytes of the spill file used by the values, or 0 if they are on the heap.
+     */
+    long getSpilledBytes() {
+        return spillStore == null ? 0 : spillStore.getBytes();
+    }
+
+    /**
+     * Adds a sheet that is already on a document, before adding new forms.
+     */
+    AnswersSheetLayout addSheet(CompositeKey sheetKey, String sheetName) {
+        return getSheet(sheetKey, sheetName);
+    }
+
+    /**
+     * Adds a variable row that is already on a document, before adding new forms.
+     */
+    void addVariable(CompositeKey rowKey, String key, String scope) {
+        getVariableRow(rowKey, key, scope);
+    }
+
+    /**
+     * Adds the values of a new form, as soon as it is read, so the values of the forms are never kept until all of them have been read. Its header
+     * must be already on the list of headers.
+     *
+     * @param formValues the values of the form to export.
+     * @param form       index of the form.
+     */
+    void add(FormValues formValues, int form) {
+        addToAnswersLayout(formValues, form);
+        if (addToVariablesLayout(formValues, form)) {
+            variables = true;
+        }
+        headers.set(form, dictionary.intern(headers.get(form)));
+    }
+
+    /**
+     * Sets the answer of a form on the question rows of its sheets, in the order they appear on the forms. Each row keeps the answer of every form,
+     * so the sheet can be written row by row afterwards. The rows of a plan are only looked up for its first form.
+     */
+    private void addToAnswersLayout(FormValues formValues, int form) {
+        final QuestionRowLayout[] rows = getQuestionRows(formValues.getPlan());
+        final String[] answers = formValues.getAnswers();
+        for (int question = 0; question < rows.length; question++) {
+            rows[question].setAnswer(form, answers[question]);
+        }
+    }
+
+    /**
+     * Gets the row of each question of a plan, adding the new sheets and rows.
+     */
+    private QuestionRowLayout[] getQuestionRows(ExportPlans.Plan plan) {
+        QuestionRowLayout[] rows = planRows.get(plan);
+        if (rows == null) {
+            rows = new QuestionRowLayout[plan.getQuestions()];
+            for (int category = 0; category < plan.getCategories(); category++) {
+                final AnswersSheetLayout sheetLayout = getSheet(plan.getSheetKey(category), plan.getSheetName(category));
+                for (int question = plan.getFirstQuestion(category); question < plan.getQuestionsEnd(category); question++) {
+                    rows[question] = sheetLayout.getRow(plan.getXpath(question), plan.getLabel(question), this);
+                }
+            }
+            if (plan.isCatalogued()) {
+                planRows.put(plan, rows);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Sets the variables of a form on the variable rows. Xpaths and keys are sorted per schema, and rows keep the order of their first appearance.
+     * The rows of a schema of the catalog are only looked up for its first form.
+     *
+     * @return false if the form has no variables.
+     */
+    private boolean addToVariablesLayout(FormValues formValues, int form) {
+        final VariableCatalog.Schema schema = formValues.getVariableSchema();
+        if (schema == null) {
+            return false;
+        }
+        final int[] rows = getVariableRows(schema);
+        final String[] values = formValues.getVariableValues();
+        for (int variable = 0; variable < rows.length; variable++) {
+            variableRows.get(rows[variable]).setValue(form, values[variable]);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the row of each variable of a schema, adding the new ones.
+     */
+    private int[] getVariableRows(VariableCatalog.Schema schema) {
+        int[] rows = schemaRows.get(schema);
+        if (rows == null) {
+            rows = new int[schema.size()];
+            for (int variable = 0; variable < rows.length; variable++) {
+                rows[variable] = getVariableRow(schema.getRowKey(variable), schema.getKey(variable), schema.getScope(variable));
+            }
+            if (schema.isCatalogued()) {
+                schemaRows.put(schema, rows);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Gets a sheet, or adds it after the existing ones.
+     */
+    private AnswersSheetLayout getSheet(CompositeKey sheetKey, String sheetName) {
+        return sheetsByKey.computeIfAbsent(sheetKey, k -> {
+            final AnswersSheetLayout sheetLayout = new AnswersSheetLayout(sheetName);
+            sheetKeys.add(sheetKey);
+            sheets.add(sheetLayout);
+            return sheetLayout;
+        });
+    }
+
+    /**
+     * Gets the number of a variable row, or adds it after the existing ones.
+     */
+    private int getVariableRow(CompositeKey rowKey, String key, String scope) {
+        return variableRowsByKey.computeIfAbsent(rowKey, k -> {
+            variableKeys.add(rowKey);
+            variableRows.add(new VariableRowLayout(dictionary.intern(key), dictionary.intern(scope), createColumn()));
+            return variableRows.size() - 1;
+        });
+    }
+
+    /**
+     * Deletes the spill file, if any. A failure is only logged, as the layout has already been written.
+     */
+    @Override
+    public void close() {
+        if (spillStore != null) {
+            try {
+                spillStore.close();
+            } catch (IOException e) {
+                XlsExporterLog.warning(this.getClass().getName(), "Spill file cannot be deleted: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Name of a sheet without the characters not allowed by the spreadsheets.
+     */
+    static String parseInvalidCharacters(String text) {
+        return text.replace(":", "").replace("\\", "-").replace("/", "-").replace("*", "").replace("?", "").replace("[", "(").replace("]", ")");
+    }
+}
@@ -0,0 +1,125 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One sheet of a {@link FormsLayout}, seen as a table with one row for each form and one column for each question (or variable) of the sheet. Columns
+ * keep the order of the rows of the sheet, so every format writes them in the same order as the workbook. The values are not copied from the layout.
+ */
+final class LayoutTable {
+    private final String name;
+    private final List<String> headers;
+    private final String[] labels;
+    private final String[] scopes;
+    private final ValueColumn[] values;
+
+    private LayoutTable(String name, List<String> headers, String[] labels, String[] scopes, ValueColumn[] values) {
+        this.name = name;
+        this.headers = headers;
+        this.labels = labels;
+        this.scopes = scopes;
+        this.values = values;
+    }
+
+    /**
+     * @param formsLayout the layout of an export.
+     * @return a table for each answers sheet, and one more for the variables if any form has variables.
+     */
+    static List<LayoutTable> of(FormsLayout formsLayout) {
+        final List<LayoutTable> tables = new ArrayList<>();
+        for (AnswersSheetLayout sheetLayout : formsLayout.getSheets()) {
+            final List<QuestionRowLayout> rows = sheetLayout.getRows();
+            final String[] labels = new String[rows.size()];
+            final ValueColumn[] values = new ValueColumn[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                labels[i] = rows.get(i).getLabel();
+                values[i] = rows.get(i).getAnswers();
+            }
+            tables.add(new LayoutTable(sheetLayout.getSheetName(), formsLayout.getHeaders(), labels, null, values));
+        }
+        if (formsLayout.hasVariables()) {
+            final List<VariableRowLayout> rows = formsLayout.getVariableRows();
+            final String[] labels = new String[rows.size()];
+            final String[] scopes = new String[rows.size()];
+            final ValueColumn[] values = new ValueColumn[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                labels[i] = rows.get(i).getKey();
+                scopes[i] = rows.get(i).getScope();
+                values[i] = rows.get(i).getValues();
+            }
+            tables.add(new LayoutTable(FormsLayout.parseInvalidCharacters(FormsLayout.VARIABLES_SHEET_NAME), formsLayout.getHeaders(), labels, scopes,
+                    values));
+        }
+        return tables;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return the header of each form.
+     */
+    List<String> getHeaders() {
+        return headers;
+    }
+
+    int getForms() {
+        return headers.size();
+    }
+
+    int getColumns() {
+        return labels.length;
+    }
+
+    /**
+     * @return the label of the question, or the key of the variable.
+     */
+    String getLabel(int column) {
+        return labels[column];
+    }
+
+    /**
+     * @return true for the table of the variables, where each column has also a scope.
+     */
+    boolean hasScopes() {
+        return scopes != null;
+    }
+
+    String getScope(int column) {
+        return scopes == null ? null : scopes[column];
+    }
+
+    /**
+     * @return the value of each form on the column.
+     */
+    ValueColumn getValues(int column) {
+        return values[column];
+    }
+
+    String getValue(int column, int form) {
+        return values[column].get(form);
+    }
+}
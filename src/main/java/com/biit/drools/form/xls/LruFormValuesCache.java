@@ -0,0 +1,75 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-heap cache that keeps the most recently used forms. The values are shared by reference, without copying them.
+ */
+public final class LruFormValuesCache implements FormValuesCache {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int maxForms;
+    private final Map<String, FormValues> values;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param maxForms maximum number of forms kept on the cache.
+     */
+    public LruFormValuesCache(int maxForms) {
+        if (maxForms <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        this.maxForms = maxForms;
+        this.values = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    }
+
+    @Override
+    public synchronized FormValues get(String fingerprint) {
+        final FormValues formValues = values.get(fingerprint);
+        if (formValues != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return formValues;
+    }
+
+    @Override
+    public synchronized void put(String fingerprint, FormValues formValues) {
+        values.put(fingerprint, formValues);
+        while (values.size() > maxForms) {
+            values.remove(values.keySet().iterator().next());
+            evictions++;
+        }
+    }
+
+    @Override
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hits, misses, evictions, values.size());
+    }
+}
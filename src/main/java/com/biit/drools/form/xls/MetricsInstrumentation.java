@@ -0,0 +1,64 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Forwards the metrics of the exports to any metrics library, using a name for each phase and counter (as {@code xls.export.write_cells}). I.e.
+ * with Micrometer:
+ * <pre>
+ * new MetricsInstrumentation("xls.export",
+ *         (name, nanos) -&gt; registry.timer(name).record(nanos, TimeUnit.NANOSECONDS),
+ *         (name, value) -&gt; registry.counter(name).increment(value));
+ * </pre>
+ */
+public class MetricsInstrumentation implements ExportInstrumentation {
+    private final String prefix;
+    private final ObjLongConsumer<String> timer;
+    private final ObjLongConsumer<String> counter;
+
+    /**
+     * @param prefix  prefix of the names of the metrics.
+     * @param timer   receives the name of each phase and its time, in nanoseconds.
+     * @param counter receives the name of each counter and its value.
+     */
+    public MetricsInstrumentation(String prefix, ObjLongConsumer<String> timer, ObjLongConsumer<String> counter) {
+        this.prefix = prefix;
+        this.timer = timer;
+        this.counter = counter;
+    }
+
+    @Override
+    public void phaseCompleted(ExportPhase phase, long nanos) {
+        timer.accept(getName(phase.getMetricName()), nanos);
+    }
+
+    @Override
+    public void counted(ExportCounter exportCounter, long value) {
+        counter.accept(getName(exportCounter.getMetricName()), value);
+    }
+
+    private String getName(String metricName) {
+        return prefix == null || prefix.isEmpty() ? metricName : prefix + "." + metricName;
+    }
+}
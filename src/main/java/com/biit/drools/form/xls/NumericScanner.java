@@ -0,0 +1,128 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * Checks if a text is a number accepted by {@link Double#parseDouble(String)} without throwing and catching exceptions. Most answers are text,
+ * and creating a {@link NumberFormatException} for each one of them is expensive.
+ */
+final class NumericScanner {
+    private static final String NAN = "NaN";
+    private static final String INFINITY = "Infinity";
+
+    private NumericScanner() {
+    }
+
+    /**
+     * Checks the syntax of a decimal number as {@link Double#parseDouble(String)} does: leading and trailing whitespaces, an optional sign,
+     * digits with an optional decimal point, an optional exponent and an optional 'f' or 'd' suffix. 'NaN' and 'Infinity' are also accepted.
+     *
+     * @param text the text to check.
+     * @return true if {@link Double#parseDouble(String)} would succeed.
+     */
+    static boolean isNumber(String text) {
+        if (text == null) {
+            return false;
+        }
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int index = 0;
+        while (index < end && text.charAt(index) <= ' ') {
+            index++;
+        }
+        if (index < end && (text.charAt(index) == '+' || text.charAt(index) == '-')) {
+            index++;
+        }
+        if (index >= end) {
+            return false;
+        }
+        final char first = text.charAt(index);
+        if (first == 'N') {
+            return text.startsWith(NAN, index) && index + NAN.length() == end;
+        }
+        if (first == 'I') {
+            return text.startsWith(INFINITY, index) && index + INFINITY.length() == end;
+        }
+        if (first == '0' && index + 1 < end && (text.charAt(index + 1) == 'x' || text.charAt(index + 1) == 'X')) {
+            return isHexNumber(text);
+        }
+        return isDecimalNumber(text, index, end);
+    }
+
+    private static boolean isDecimalNumber(String text, int start, int end) {
+        int index = start;
+        int digits = 0;
+        while (index < end && isDigit(text.charAt(index))) {
+            index++;
+            digits++;
+        }
+        if (index < end && text.charAt(index) == '.') {
+            index++;
+            while (index < end && isDigit(text.charAt(index))) {
+                index++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (index < end && (text.charAt(index) == 'e' || text.charAt(index) == 'E')) {
+            index++;
+            if (index < end && (text.charAt(index) == '+' || text.charAt(index) == '-')) {
+                index++;
+            }
+            final int exponentStart = index;
+            while (index < end && isDigit(text.charAt(index))) {
+                index++;
+            }
+            if (index == exponentStart) {
+                return false;
+            }
+        }
+        if (index < end && isTypeSuffix(text.charAt(index))) {
+            index++;
+        }
+        return index == end;
+    }
+
+    /**
+     * Hexadecimal floating point numbers are very unusual on answers. Its syntax is left to the JDK.
+     */
+    private static boolean isHexNumber(String text) {
+        try {
+            Double.parseDouble(text);
+            return true;
+        } catch (NumberFormatException nfe) {
+            return false;
+        }
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean isTypeSuffix(char character) {
+        return character == 'f' || character == 'F' || character == 'd' || character == 'D';
+    }
+}
@@ -0,0 +1,60 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * One question row, with the answer on each form.
+ */
+final class QuestionRowLayout {
+    private final String xpath;
+    private final String label;
+    private final ValueColumn answers;
+
+    QuestionRowLayout(String xpath, String label, ValueColumn answers) {
+        this.xpath = xpath;
+        this.label = label;
+        this.answers = answers;
+    }
+
+    String getXpath() {
+        return xpath;
+    }
+
+    String getLabel() {
+        return label;
+    }
+
+    String getAnswer(int formIndex) {
+        return answers.get(formIndex);
+    }
+
+    void setAnswer(int formIndex, String answer) {
+        answers.set(formIndex, answer);
+    }
+
+    /**
+     * @return the answer of each form.
+     */
+    ValueColumn getAnswers() {
+        return answers;
+    }
+}
@@ -0,0 +1,65 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of setting the width of the columns of a sheet. Autosizing measures the text of every cell, so it is usually the slowest
+ * part of writing a sheet.
+ */
+@Name(ResizeColumnsEvent.NAME)
+@Label("XLS Resize Columns")
+@Category({"BiiT", "XLS Export"})
+@Description("Width of the columns of one sheet.")
+final class ResizeColumnsEvent extends Event {
+    static final String NAME = "com.biit.drools.form.xls.ResizeColumns";
+
+    @Label("Sheet")
+    private String sheet;
+
+    @Label("Strategy")
+    private String strategy;
+
+    @Label("Columns")
+    private int columns;
+
+    @Label("Rows")
+    private int rows;
+
+    /**
+     * Commits the event. Must be called after {@link #end()}.
+     */
+    void commit(String sheetName, ColumnWidthStrategy columnWidthStrategy, int sheetColumns, int sheetRows) {
+        if (shouldCommit()) {
+            sheet = sheetName;
+            strategy = columnWidthStrategy.name();
+            columns = sheetColumns;
+            rows = sheetRows;
+            commit();
+        }
+    }
+}
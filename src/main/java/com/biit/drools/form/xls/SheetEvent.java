@@ -0,0 +1,60 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of the creation of a sheet, or of the forms appended to an existing one.
+ */
+@Name(SheetEvent.NAME)
+@Label("XLS Sheet")
+@Category({"BiiT", "XLS Export"})
+@Description("Rows and cells of one sheet written to the workbook.")
+final class SheetEvent extends Event {
+    static final String NAME = "com.biit.drools.form.xls.Sheet";
+
+    @Label("Sheet")
+    private String sheet;
+
+    @Label("Forms")
+    private long forms;
+
+    @Label("Cells")
+    private long cells;
+
+    /**
+     * Commits the event. Must be called after {@link #end()}.
+     */
+    void commit(String sheetName, long sheetForms, long sheetCells) {
+        if (shouldCommit()) {
+            sheet = sheetName;
+            forms = sheetForms;
+            cells = sheetCells;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.logger.XlsExporterLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the cells of the layout of a huge export on a memory-mapped temporary file instead of the heap. Each cell is stored as the id of its text on
+ * the {@link StringDictionary} plus one (zero for no value), in blocks of {@value #BLOCK_FORMS} consecutive forms of the same row. A block is only
+ * allocated when one of its forms has a value, and the rows are read back in order when the sheets are written. The heap keeps the dictionary, with
+ * every different text of the export, the rows and their blocks, and the headers of the forms: the operating system decides which pages of the file
+ * stay in memory.
+ * <p>
+ * The segments are unmapped when the store is closed, so the memory and the disk space are released at once instead of when the buffers are
+ * collected. If the JVM does not allow it, they are released by the garbage collector.
+ */
+final class SpillStore implements AutoCloseable {
+    static final int BLOCK_FORMS = 1024;
+    private static final int BLOCK_BYTES = BLOCK_FORMS * Integer.BYTES;
+    // 64 MB for each mapped segment.
+    private static final int SEGMENT_BLOCKS = 16 * 1024;
+    private static final long SEGMENT_BYTES = (long) SEGMENT_BLOCKS * BLOCK_BYTES;
+    private static final String FILE_PREFIX = "forms-";
+    private static final String FILE_SUFFIX = ".spill";
+    private static final int NO_BLOCK = -1;
+    private static final Unmapper UNMAPPER = Unmapper.create();
+
+    private final FileChannel channel;
+    private final StringDictionary dictionary;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int blocks = 0;
+
+    /**
+     * @param directory  where the temporary file is created. It is deleted when the store is closed.
+     * @param dictionary the texts of the cells.
+     * @throws IOException if the file cannot be created.
+     */
+    SpillStore(Path directory, StringDictionary dictionary) throws IOException {
+        final Path file = Files.createTempFile(directory, FILE_PREFIX, FILE_SUFFIX);
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * @return a new empty row.
+     */
+    ValueColumn createColumn() {
+        return new SpilledColumn();
+    }
+
+    /**
+     * @return size of the allocated blocks.
+     */
+    long getBytes() {
+        return (long) blocks * BLOCK_BYTES;
+    }
+
+    /**
+     * Allocates a block of cells, mapping a new segment of the file if needed. New blocks have no values, as the file is extended with zeros.
+     */
+    private int allocateBlock() {
+        if (blocks == segments.size() * SEGMENT_BLOCKS) {
+            try {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, segments.size() * SEGMENT_BYTES, SEGMENT_BYTES));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return blocks++;
+    }
+
+    private int getCell(int block, int formIndex) {
+        return segments.get(block / SEGMENT_BLOCKS).getInt(getPosition(block, formIndex));
+    }
+
+    private void setCell(int block, int formIndex, int cell) {
+        segments.get(block / SEGMENT_BLOCKS).putInt(getPosition(block, formIndex), cell);
+    }
+
+    private int getPosition(int block, int formIndex) {
+        return (block % SEGMENT_BLOCKS) * BLOCK_BYTES + (formIndex % BLOCK_FORMS) * Integer.BYTES;
+    }
+
+    /**
+     * Closes and deletes the file. The rows of the store cannot be used anymore.
+     */
+    @Override
+    public void close() throws IOException {
+        final List<MappedByteBuffer> mappedSegments = new ArrayList<>(segments);
+        // Rows used after closing fail on the empty list, never on an unmapped segment.
+        segments.clear();
+        for (MappedByteBuffer segment : mappedSegments) {
+            UNMAPPER.unmap(segment);
+        }
+        channel.close();
+    }
+
+    /**
+     * Releases a mapped buffer without waiting for the garbage collector, using {@code sun.misc.Unsafe.invokeCleaner} as there is no public API
+     * to do it.
+     */
+    private static final class Unmapper {
+        private final Object unsafe;
+        private final Method invokeCleaner;
+
+        private Unmapper(Object unsafe, Method invokeCleaner) {
+            this.unsafe = unsafe;
+            this.invokeCleaner = invokeCleaner;
+        }
+
+        static Unmapper create() {
+            try {
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                return new Unmapper(theUnsafe.get(null), unsafeClass.getMethod("invokeCleaner", ByteBuffer.class));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                XlsExporterLog.debug(SpillStore.class.getName(), "Spill files are unmapped by the garbage collector: " + e.getMessage());
+                return new Unmapper(null, null);
+            }
+        }
+
+        void unmap(MappedByteBuffer buffer) {
+            if (invokeCleaner == null) {
+                return;
+            }
+            try {
+                invokeCleaner.invoke(unsafe, buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                XlsExporterLog.debug(SpillStore.class.getName(), "Spill file not unmapped: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A row of the store, with the block of each range of forms.
+     */
+    private final class SpilledColumn implements ValueColumn {
+        private int[] rowBlocks = new int[0];
+
+        @Override
+        public String get(int formIndex) {
+            final int block = getBlock(formIndex);
+            if (block == NO_BLOCK) {
+                return null;
+            }
+            final int cell = getCell(block, formIndex);
+            return cell == 0 ? null : dictionary.getString(cell - 1);
+        }
+
+        @Override
+        public void set(int formIndex, String value) {
+            int block = getBlock(formIndex);
+            if (value == null) {
+                if (block != NO_BLOCK) {
+                    setCell(block, formIndex, 0);
+                }
+                return;
+            }
+            if (block == NO_BLOCK) {
+                block = allocateBlock();
+                final int index = formIndex / BLOCK_FORMS;
+                if (index >= rowBlocks.length) {
+                    final int previousLength = rowBlocks.length;
+                    rowBlocks = Arrays.copyOf(rowBlocks, index + 1);
+                    Arrays.fill(rowBlocks, previousLength, rowBlocks.length, NO_BLOCK);
+                }
+                rowBlocks[index] = block;
+            }
+            setCell(block, formIndex, dictionary.getId(value) + 1);
+        }
+
+        private int getBlock(int formIndex) {
+            final int index = formIndex / BLOCK_FORMS;
+            return index < rowBlocks.length ? rowBlocks[index] : NO_BLOCK;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a single instance of each text written on an export. The same labels, scopes and answers are repeated on many forms, and each form is read
+ * with its own copies of them: once the texts are in the layout, only one copy of each one is kept in memory. Each text has also a numeric id, so
+ * the layout can keep its cells out of the heap (see {@link SpillStore}).
+ */
+final class StringDictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private long deduplicated = 0;
+
+    /**
+     * @param text any text. Can be null.
+     * @return the instance of the text on the dictionary.
+     */
+    String intern(String text) {
+        if (text == null) {
+            return null;
+        }
+        return strings.get(getId(text));
+    }
+
+    /**
+     * @param text any text, not null.
+     * @return the id of the text on the dictionary. The text is added if missing.
+     */
+    int getId(String text) {
+        final Integer id = ids.get(text);
+        if (id != null) {
+            deduplicated++;
+            return id;
+        }
+        ids.put(text, strings.size());
+        strings.add(text);
+        return strings.size() - 1;
+    }
+
+    /**
+     * @param id an id returned by {@link #getId(String)}.
+     * @return the text.
+     */
+    String getString(int id) {
+        return strings.get(id);
+    }
+
+    /**
+     * @return different texts on the dictionary.
+     */
+    int size() {
+        return strings.size();
+    }
+
+    /**
+     * @return texts replaced by an existing instance.
+     */
+    long getDeduplicated() {
+        return deduplicated;
+    }
+}
@@ -0,0 +1,146 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.usermodel.extensions.XSSFCellBorder;
+import org.apache.poi.xssf.usermodel.extensions.XSSFCellFill;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTBorder;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTFill;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTFont;
+import org.apache.xmlbeans.XmlObject;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTXf;
+
+import java.util.function.Supplier;
+
+/**
+ * Styles of the {@link XlsFormat#XLSX} documents, compiled once and copied to each workbook. Each setter of an XLSX style copies and searches
+ * the fonts, fills and borders of the workbook, and leaves the intermediate borders on the document. Copying the final records is several times
+ * faster and each workbook only gets the records that are used.
+ * <p>
+ * The records are compiled once. XmlBeans locks the document of a record while reading it, and {@link XmlObject#copy()} leaves the copy on the
+ * same document, so records are always copied to a new document instead. Each thread copies the styles from its own copy of the records, and
+ * concurrent exports do not wait for each other.
+ * <p>
+ * XLS styles are not compiled: they are simple records, faster to create than to copy between workbooks.
+ */
+final class StyleTemplate {
+    private static final long DEFAULT_FONT = 0;
+
+    private final CTXf[] cellXfs;
+    private final CTFont[] fonts;
+    private final CTFill[] fills;
+    private final CTBorder[] borders;
+
+    /**
+     * Compiled when first used, and copied once for each thread.
+     */
+    private static final class XlsxTemplate {
+        private static final StyleTemplate INSTANCE = new StyleTemplate(ExportContext.createTemplate(new XSSFWorkbook()));
+        private static final ThreadLocal<StyleTemplate> THREAD_INSTANCE = ThreadLocal.withInitial(INSTANCE::copy);
+    }
+
+    private StyleTemplate(ExportContext context) {
+        final CellStyle[] styles = {context.getTitleStyle(), context.getAnswerLabelsStyle(), context.getContentStyle()};
+        final StylesTable stylesTable = ((XSSFWorkbook) context.getWorkbook()).getStylesSource();
+        cellXfs = new CTXf[styles.length];
+        fonts = new CTFont[styles.length];
+        fills = new CTFill[styles.length];
+        borders = new CTBorder[styles.length];
+        for (int i = 0; i < styles.length; i++) {
+            final CTXf cellXf = ((XSSFCellStyle) styles[i]).getCoreXf();
+            cellXfs[i] = copy(cellXf, CTXf.Factory::newInstance);
+            // Styles without a font of their own use the default font of the workbook.
+            if (cellXf.getFontId() != DEFAULT_FONT) {
+                fonts[i] = copy(stylesTable.getFontAt((int) cellXf.getFontId()).getCTFont(), CTFont.Factory::newInstance);
+            }
+            fills[i] = copy(stylesTable.getFillAt((int) cellXf.getFillId()).getCTFill(), CTFill.Factory::newInstance);
+            borders[i] = copy(stylesTable.getBorderAt((int) cellXf.getBorderId()).getCTBorder(), CTBorder.Factory::newInstance);
+        }
+    }
+
+    private StyleTemplate(CTXf[] cellXfs, CTFont[] fonts, CTFill[] fills, CTBorder[] borders) {
+        this.cellXfs = cellXfs;
+        this.fonts = fonts;
+        this.fills = fills;
+        this.borders = borders;
+    }
+
+    /**
+     * @return the template of the current thread.
+     */
+    static StyleTemplate getXlsx() {
+        return XlsxTemplate.THREAD_INSTANCE.get();
+    }
+
+    /**
+     * Copies the records, for a new thread. The records of the compiled template are never modified, only copied.
+     */
+    private StyleTemplate copy() {
+        final CTXf[] cellXfsCopy = new CTXf[cellXfs.length];
+        final CTFont[] fontsCopy = new CTFont[fonts.length];
+        final CTFill[] fillsCopy = new CTFill[fills.length];
+        final CTBorder[] bordersCopy = new CTBorder[borders.length];
+        for (int i = 0; i < cellXfs.length; i++) {
+            cellXfsCopy[i] = copy(cellXfs[i], CTXf.Factory::newInstance);
+            fontsCopy[i] = fonts[i] != null ? copy(fonts[i], CTFont.Factory::newInstance) : null;
+            fillsCopy[i] = copy(fills[i], CTFill.Factory::newInstance);
+            bordersCopy[i] = copy(borders[i], CTBorder.Factory::newInstance);
+        }
+        return new StyleTemplate(cellXfsCopy, fontsCopy, fillsCopy, bordersCopy);
+    }
+
+    /**
+     * Copies a record to a new document, that is not locked by the threads that use the original.
+     */
+    private static <T extends XmlObject> T copy(T record, Supplier<T> factory) {
+        final T copy = factory.get();
+        copy.set(record);
+        return copy;
+    }
+
+    /**
+     * Adds the styles to a workbook. Only called by the thread of the template.
+     *
+     * @param workbook a new workbook.
+     * @return the title, answer labels and content styles, in this order.
+     */
+    CellStyle[] createStyles(XSSFWorkbook workbook) {
+        final StylesTable stylesTable = workbook.getStylesSource();
+        final CellStyle[] styles = new CellStyle[cellXfs.length];
+        for (int i = 0; i < cellXfs.length; i++) {
+            final CTXf cellXf = copy(cellXfs[i], CTXf.Factory::newInstance);
+            if (fonts[i] != null) {
+                // Each style has its own font, as fonts created with Workbook.createFont().
+                cellXf.setFontId(stylesTable.putFont(new XSSFFont(copy(fonts[i], CTFont.Factory::newInstance)), true));
+            }
+            cellXf.setFillId(stylesTable.putFill(new XSSFCellFill(copy(fills[i], CTFill.Factory::newInstance), stylesTable.getIndexedColors())));
+            cellXf.setBorderId(stylesTable.putBorder(new XSSFCellBorder(copy(borders[i], CTBorder.Factory::newInstance))));
+            styles[i] = stylesTable.getStyleAt(stylesTable.putCellXf(cellXf) - 1);
+        }
+        return styles;
+    }
+}
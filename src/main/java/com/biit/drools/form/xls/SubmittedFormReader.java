@@ -0,0 +1,199 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Reads submitted forms from json sources while they are exported. Each form is parsed when it is needed, so the whole batch is never in memory.
+ * With a parallelism greater than one, the exporter reads the sources in order but parses each form on its own threads.
+ * Reading errors are thrown as {@link UncheckedIOException}, and reported by the exporter as an
+ * {@link com.biit.drools.form.xls.exceptions.InvalidXlsElementException}.
+ */
+public final class SubmittedFormReader {
+    private static final String JSON_EXTENSION = ".json";
+
+    private SubmittedFormReader() {
+    }
+
+    /**
+     * Forms stored on files, one form by file. The files are read again each time the forms are iterated.
+     *
+     * @param files the json files.
+     * @return the forms, in the same order as the files.
+     */
+    public static Iterable<DroolsSubmittedForm> fromFiles(List<Path> files) {
+        return () -> new FileIterator(files.iterator());
+    }
+
+    /**
+     * All json files of a folder, sorted by name. The folder is listed again each time the forms are iterated.
+     *
+     * @param directory the folder.
+     * @return the forms.
+     */
+    public static Iterable<DroolsSubmittedForm> fromDirectory(Path directory) {
+        return () -> new FileIterator(listJsonFiles(directory).iterator());
+    }
+
+    /**
+     * Newline delimited json: one form by line. Empty lines are ignored. As the stream can only be read once, the forms can only be iterated
+     * once. The stream is not closed.
+     *
+     * @param inputStream UTF-8 text with a form on each line.
+     * @return the forms.
+     */
+    public static Iterable<DroolsSubmittedForm> fromNdjson(InputStream inputStream) {
+        final AtomicBoolean used = new AtomicBoolean(false);
+        return () -> {
+            if (used.getAndSet(true)) {
+                throw new IllegalStateException("Forms from a stream can only be read once.");
+            }
+            return new LineIterator(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+        };
+    }
+
+    private static List<Path> listJsonFiles(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            final List<Path> jsonFiles = new ArrayList<>();
+            files.filter(file -> file.getFileName().toString().endsWith(JSON_EXTENSION) && Files.isRegularFile(file)).forEach(jsonFiles::add);
+            Collections.sort(jsonFiles);
+            return jsonFiles;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static DroolsSubmittedForm parse(String source, String json) {
+        try {
+            return DroolsSubmittedForm.getFromJson(json);
+        } catch (Exception e) {
+            throw new UncheckedIOException(new IOException("Invalid form on " + source + ".", e));
+        }
+    }
+
+    /**
+     * Forms that can be taken before being parsed, so the exporter parses them concurrently.
+     */
+    interface UnparsedForms extends Iterator<DroolsSubmittedForm> {
+
+        /**
+         * Takes the next form from the source without parsing it.
+         *
+         * @return the parsing of the form, that can run on any thread.
+         * @throws NoSuchElementException if there are no more forms.
+         */
+        Supplier<DroolsSubmittedForm> nextUnparsed();
+    }
+
+    private static final class FileIterator implements UnparsedForms {
+        private final Iterator<Path> files;
+
+        private FileIterator(Iterator<Path> files) {
+            this.files = files;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return files.hasNext();
+        }
+
+        @Override
+        public DroolsSubmittedForm next() {
+            return nextUnparsed().get();
+        }
+
+        @Override
+        public Supplier<DroolsSubmittedForm> nextUnparsed() {
+            final Path file = files.next();
+            return () -> read(file);
+        }
+
+        private static DroolsSubmittedForm read(Path file) {
+            try {
+                return parse(file.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Form '" + file + "' cannot be read.", e);
+            }
+        }
+    }
+
+    private static final class LineIterator implements UnparsedForms {
+        private final BufferedReader reader;
+        private String nextLine;
+        private int lineNumber = 0;
+        private boolean finished = false;
+
+        private LineIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextLine == null && !finished) {
+                try {
+                    do {
+                        nextLine = reader.readLine();
+                        lineNumber++;
+                    } while (nextLine != null && nextLine.isBlank());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                finished = nextLine == null;
+            }
+            return nextLine != null;
+        }
+
+        @Override
+        public DroolsSubmittedForm next() {
+            return nextUnparsed().get();
+        }
+
+        @Override
+        public Supplier<DroolsSubmittedForm> nextUnparsed() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final String line = nextLine;
+            final String source = "line " + lineNumber;
+            nextLine = null;
+            return () -> parse(source, line);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffer of the bytes of a table, written on the stream when full. Texts are encoded as UTF-8 without intermediate copies when they only have
+ * ASCII characters, that are most of the labels, headers and answers of the forms. Numbers are big endian.
+ */
+final class TableBuffer {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char ASCII_LIMIT = 0x80;
+
+    private final OutputStream outputStream;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    TableBuffer(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    void writeByte(int value) throws IOException {
+        ensureRemaining(1);
+        buffer.put((byte) value);
+    }
+
+    void writeInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    void writeDouble(double value) throws IOException {
+        ensureRemaining(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.capacity()) {
+            flushBuffer();
+            outputStream.write(bytes);
+            return;
+        }
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes the text as UTF-8.
+     */
+    void writeText(String text) throws IOException {
+        if (text.length() > buffer.capacity() || !putAscii(text)) {
+            writeBytes(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Writes the length of the text as UTF-8 and its bytes.
+     */
+    void writeSizedText(String text) throws IOException {
+        if (!isAscii(text)) {
+            final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            writeBytes(bytes);
+            return;
+        }
+        writeInt(text.length());
+        writeText(text);
+    }
+
+    /**
+     * Writes the pending bytes on the stream, and flushes it.
+     */
+    void flush() throws IOException {
+        flushBuffer();
+        outputStream.flush();
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        outputStream.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+
+    /**
+     * Copies the characters of the text directly on the buffer.
+     *
+     * @return false, without writing anything, if the text has characters that are not ASCII.
+     */
+    private boolean putAscii(String text) throws IOException {
+        ensureRemaining(text.length());
+        final byte[] bytes = buffer.array();
+        final int position = buffer.position();
+        for (int i = 0; i < text.length(); i++) {
+            final char character = text.charAt(i);
+            if (character >= ASCII_LIMIT) {
+                return false;
+            }
+            bytes[position + i] = (byte) character;
+        }
+        buffer.position(position + text.length());
+        return true;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= ASCII_LIMIT) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * Formats of the tables generated by {@link FormsAsTables}, one table for each sheet of the workbook.
+ */
+public enum TableFormat {
+
+    /**
+     * Comma separated values (RFC 4180). Values with commas, quotes or line breaks are quoted.
+     */
+    CSV(".csv"),
+
+    /**
+     * Tab separated values. Tabs, line breaks and backslashes inside the values are escaped with a backslash.
+     */
+    TSV(".tsv"),
+
+    /**
+     * Binary columnar format, with the values of each column stored together (see {@link ColumnarTableWriter}).
+     */
+    COLUMNAR(".fcol");
+
+    private final String extension;
+
+    TableFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,39 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a {@link LayoutTable} on a stream in one of the {@link TableFormat}s.
+ */
+interface TableWriter {
+
+    /**
+     * @param table        the table to write.
+     * @param outputStream where the table is written. Not closed.
+     * @param metrics      where the written rows and cells are added.
+     * @throws IOException if the stream cannot be written.
+     */
+    void write(LayoutTable table, OutputStream outputStream, ExportMetrics metrics) throws IOException;
+}
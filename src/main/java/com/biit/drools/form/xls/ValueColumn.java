@@ -0,0 +1,41 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * The value of each form on a question or variable row of a {@link FormsLayout}. Values are kept only once on the {@link StringDictionary} of the
+ * layout; where the column keeps its references depends on the implementation.
+ */
+interface ValueColumn {
+
+    /**
+     * @param formIndex index of the form on the export.
+     * @return the value of the form, or null if it has no value.
+     */
+    String get(int formIndex);
+
+    /**
+     * @param formIndex index of the form on the export.
+     * @param value     the value of the form. Can be null.
+     */
+    void set(int formIndex, String value);
+}
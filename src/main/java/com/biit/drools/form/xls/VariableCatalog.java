@@ -0,0 +1,205 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.form.submitted.implementation.SubmittedObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Variables of the forms of an export, grouped by schema: the name of the form and the variables of each element. Forms of the same schema share its
+ * sorted xpaths and keys and the scope of each variable, resolved on the first of them, therefore each form only reads its values.
+ * <p>
+ * Forms are extracted concurrently, so the catalog is thread safe. Schemas are looked up without locking, only a new schema is added under a lock.
+ */
+final class VariableCatalog {
+    private static final int HASH_MULTIPLIER = 31;
+
+    private final Map<Integer, List<Schema>> schemas = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Gets the schema of a form, or creates it if no other form has the same variables.
+     *
+     * @param formIndex the form, with variables.
+     * @return the schema of the variables of the form.
+     */
+    Schema getSchema(FormIndex formIndex) {
+        final DroolsSubmittedForm droolsSubmittedForm = formIndex.getForm();
+        final int hash = Schema.hash(droolsSubmittedForm.getName(), droolsSubmittedForm.getFormVariables());
+        final List<Schema> candidates = schemas.computeIfAbsent(hash, key -> new CopyOnWriteArrayList<>());
+        for (Schema schema : candidates) {
+            if (schema.matches(droolsSubmittedForm.getName(), droolsSubmittedForm.getFormVariables())) {
+                return schema;
+            }
+        }
+        synchronized (candidates) {
+            // Added by another thread meanwhile.
+            for (Schema schema : candidates) {
+                if (schema.matches(droolsSubmittedForm.getName(), droolsSubmittedForm.getFormVariables())) {
+                    return schema;
+                }
+            }
+            final Schema schema = Schema.of(formIndex);
+            candidates.add(schema);
+            size.incrementAndGet();
+            return schema;
+        }
+    }
+
+    /**
+     * @return number of different schemas.
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Variables of a form sorted by xpath and name, and the scope of each one.
+     */
+    static final class Schema {
+        private final String formName;
+        private final Map<String, Set<String>> keysByXpath;
+        private final CompositeKey[] rowKeys;
+        private final String[] keys;
+        private final String[] scopes;
+        private final boolean catalogued;
+
+        Schema(CompositeKey[] rowKeys, String[] keys, String[] scopes) {
+            this(null, null, rowKeys, keys, scopes);
+        }
+
+        private Schema(String formName, Map<String, Set<String>> keysByXpath, CompositeKey[] rowKeys, String[] keys, String[] scopes) {
+            this.formName = formName;
+            this.keysByXpath = keysByXpath;
+            this.rowKeys = rowKeys;
+            this.keys = keys;
+            this.scopes = scopes;
+            this.catalogued = keysByXpath != null;
+        }
+
+        private static Schema of(FormIndex formIndex) {
+            final DroolsSubmittedForm droolsSubmittedForm = formIndex.getForm();
+            final Map<String, Set<String>> keysByXpath = new HashMap<>();
+            final List<CompositeKey> rowKeys = new ArrayList<>();
+            final List<String> scopes = new ArrayList<>();
+
+            //Sort the xpaths
+            final SortedSet<String> xpaths = new TreeSet<>(droolsSubmittedForm.getFormVariables().keySet());
+
+            //Sort the variables
+            for (String xpath : xpaths) {
+                final SortedSet<String> keys = new TreeSet<>(droolsSubmittedForm.getFormVariables().get(xpath).keySet());
+                keysByXpath.put(xpath, keys);
+
+                final SubmittedObject scopeElement = formIndex.getElement(xpath);
+                final String scope = scopeElement != null ? scopeElement.getText() : droolsSubmittedForm.getName();
+
+                for (String key : keys) {
+                    rowKeys.add(new CompositeKey(xpath, key));
+                    scopes.add(scope);
+                }
+            }
+            final String[] keys = new String[rowKeys.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = rowKeys.get(i).getSecond();
+            }
+            return new Schema(droolsSubmittedForm.getName(), keysByXpath, rowKeys.toArray(new CompositeKey[0]), keys,
+                    scopes.toArray(new String[0]));
+        }
+
+        /**
+         * Hash of the name of a form and its variables, that does not depend on the order of the maps.
+         */
+        private static int hash(String formName, Map<String, Map<String, Object>> variables) {
+            int hash = Objects.hashCode(formName);
+            for (Map.Entry<String, Map<String, Object>> xpath : variables.entrySet()) {
+                for (String key : xpath.getValue().keySet()) {
+                    hash += HASH_MULTIPLIER * xpath.getKey().hashCode() + key.hashCode();
+                }
+            }
+            return hash;
+        }
+
+        private boolean matches(String formName, Map<String, Map<String, Object>> variables) {
+            if (!Objects.equals(this.formName, formName) || keysByXpath.size() != variables.size()) {
+                return false;
+            }
+            for (Map.Entry<String, Map<String, Object>> xpath : variables.entrySet()) {
+                final Set<String> keys = keysByXpath.get(xpath.getKey());
+                if (keys == null || keys.size() != xpath.getValue().size() || !keys.containsAll(xpath.getValue().keySet())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Values of a form of this schema, in the order of the schema.
+         */
+        String[] getValues(Map<String, Map<String, Object>> variables) {
+            final String[] values = new String[rowKeys.length];
+            Map<String, Object> xpathValues = null;
+            for (int i = 0; i < rowKeys.length; i++) {
+                if (i == 0 || !rowKeys[i].getFirst().equals(rowKeys[i - 1].getFirst())) {
+                    xpathValues = variables.get(rowKeys[i].getFirst());
+                }
+                values[i] = String.valueOf(xpathValues.get(keys[i]));
+            }
+            return values;
+        }
+
+        /**
+         * @return false for the schemas of values read from a cache, that belong to a single form.
+         */
+        boolean isCatalogued() {
+            return catalogued;
+        }
+
+        int size() {
+            return rowKeys.length;
+        }
+
+        CompositeKey getRowKey(int variable) {
+            return rowKeys[variable];
+        }
+
+        String getKey(int variable) {
+            return keys[variable];
+        }
+
+        String getScope(int variable) {
+            return scopes[variable];
+        }
+    }
+}
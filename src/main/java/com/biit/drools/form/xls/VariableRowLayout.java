@@ -0,0 +1,60 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * One variable row, with the value on each form.
+ */
+final class VariableRowLayout {
+    private final String key;
+    private final String scope;
+    private final ValueColumn values;
+
+    VariableRowLayout(String key, String scope, ValueColumn values) {
+        this.key = key;
+        this.scope = scope;
+        this.values = values;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    String getScope() {
+        return scope;
+    }
+
+    String getValue(int formIndex) {
+        return values.get(formIndex);
+    }
+
+    void setValue(int formIndex, String value) {
+        values.set(formIndex, value);
+    }
+
+    /**
+     * @return the value of each form.
+     */
+    ValueColumn getValues() {
+        return values;
+    }
+}
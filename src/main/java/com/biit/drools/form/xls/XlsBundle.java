@@ -0,0 +1,253 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import com.biit.drools.form.xls.logger.XlsExporterLog;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the forms of a {@link FormsAsXls} as several workbooks inside a zip file, split by ranges of forms or by categories (see
+ * {@link BundleSharding}). Each workbook is written on the zip as soon as it is completed, and is not kept in memory. Bundles are not limited by
+ * the size of a single workbook: zip64 records are used when the bundle or one of its workbooks exceeds 4 GB.
+ */
+public class XlsBundle {
+    public static final int DEFAULT_FORMS_PER_WORKBOOK = 1000;
+    private static final String EXTENSION = ".zip";
+    private static final String FORM_RANGE_NAME = "forms %d-%d";
+    private static final String DUPLICATED_NAME = "%s (%d)";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FormsAsXls formsAsXls;
+    private BundleSharding sharding = BundleSharding.FORM_RANGE;
+    private int formsPerWorkbook = DEFAULT_FORMS_PER_WORKBOOK;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * @param formsAsXls the forms and the settings of the workbooks (format, layout, ...). Workbooks of a bundle are never appendable.
+     */
+    public XlsBundle(FormsAsXls formsAsXls) {
+        this.formsAsXls = formsAsXls;
+    }
+
+    public BundleSharding getSharding() {
+        return sharding;
+    }
+
+    public void setSharding(BundleSharding sharding) {
+        this.sharding = sharding;
+    }
+
+    public int getFormsPerWorkbook() {
+        return formsPerWorkbook;
+    }
+
+    /**
+     * Maximum number of forms of each workbook, when split by {@link BundleSharding#FORM_RANGE}.
+     *
+     * @param formsPerWorkbook number of forms.
+     */
+    public void setFormsPerWorkbook(int formsPerWorkbook) {
+        if (formsPerWorkbook <= 0) {
+            throw new IllegalArgumentException("Forms per workbook must be positive.");
+        }
+        this.formsPerWorkbook = formsPerWorkbook;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * @param compressionLevel from {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}, or {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        if ((compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)
+                && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level '" + compressionLevel + "'.");
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Writes the bundle on the stream. The stream is not closed.
+     *
+     * @param outputStream where the bundle is written.
+     * @return the time and counters of the export, also sent to the instrumentation of the {@link FormsAsXls}.
+     * @throws InvalidXlsElementException if a workbook cannot be generated or written.
+     */
+    public ExportReport generate(OutputStream outputStream) throws InvalidXlsElementException {
+        final ExportMetrics metrics = new ExportMetrics();
+        final ExportEvent event = new ExportEvent();
+        event.begin();
+        final CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+        try {
+            final ZipOutputStream zipOutputStream = new ZipOutputStream(countingOutputStream);
+            zipOutputStream.setLevel(compressionLevel);
+            final Set<String> entries = new HashSet<>();
+            if (sharding == BundleSharding.CATEGORY) {
+                writeByCategory(zipOutputStream, entries, metrics);
+            } else {
+                writeByFormRange(zipOutputStream, entries, metrics);
+            }
+            // Not closed, as it would close the stream.
+            zipOutputStream.finish();
+            countingOutputStream.flush();
+            metrics.add(ExportCounter.BUNDLE_BYTES, countingOutputStream.getCount());
+        } catch (InvalidXlsElementException e) {
+            XlsExporterLog.errorMessage(this.getClass().getName(), e);
+            metrics.failed(formsAsXls.getInstrumentation(), e);
+            throw e;
+        } catch (Exception e) {
+            XlsExporterLog.errorMessage(this.getClass().getName(), e);
+            metrics.failed(formsAsXls.getInstrumentation(), e);
+            throw new InvalidXlsElementException(e);
+        }
+        final ExportReport report = metrics.completed(formsAsXls.getInstrumentation());
+        event.end();
+        event.commit(formsAsXls.getFormat(), formsAsXls.getLayout(), false, report);
+        return report;
+    }
+
+    /**
+     * Writes the bundle on a file.
+     *
+     * @param path the file. The zip extension is added if missing.
+     * @throws IOException                if the file cannot be written.
+     * @throws InvalidXlsElementException if a workbook cannot be generated.
+     */
+    public void createFile(String path) throws IOException, InvalidXlsElementException {
+        if (!path.endsWith(EXTENSION)) {
+            path += EXTENSION;
+        }
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(Paths.get(path)), BUFFER_SIZE)) {
+            generate(outputStream);
+        }
+    }
+
+    private void writeByFormRange(ZipOutputStream zipOutputStream, Set<String> entries, ExportMetrics metrics) throws IOException,
+            InvalidXlsElementException {
+        final DroolsFormConversor conversor = formsAsXls.createConversor(false);
+        final Iterator<DroolsSubmittedForm> forms = formsAsXls.getForms().iterator();
+        int firstForm = 0;
+        while (forms.hasNext()) {
+            final FormRange range = new FormRange(forms, formsPerWorkbook);
+            final Workbook workbook = formsAsXls.createWorkbook();
+            try {
+                conversor.createXlsDocument(workbook, range, getFormHeaders(firstForm), metrics);
+                writeEntry(zipOutputStream, entries, String.format(FORM_RANGE_NAME, firstForm + 1, firstForm + range.getForms()), workbook, metrics);
+            } finally {
+                formsAsXls.closeWorkbook(workbook);
+            }
+            firstForm += range.getForms();
+        }
+    }
+
+    private void writeByCategory(ZipOutputStream zipOutputStream, Set<String> entries, ExportMetrics metrics) throws InvalidXlsElementException {
+        formsAsXls.createConversor(false).createXlsDocumentsByCategory(formsAsXls.getForms().iterator(), formsAsXls.getFormHeaders(), metrics,
+                new DroolsFormConversor.WorkbookConsumer() {
+                    @Override
+                    public Workbook createWorkbook() {
+                        return formsAsXls.createWorkbook();
+                    }
+
+                    @Override
+                    public void accept(String name, Workbook workbook) throws InvalidXlsElementException {
+                        try {
+                            try {
+                                writeEntry(zipOutputStream, entries, name, workbook, metrics);
+                            } finally {
+                                formsAsXls.closeWorkbook(workbook);
+                            }
+                        } catch (IOException e) {
+                            throw new InvalidXlsElementException(e);
+                        }
+                    }
+                });
+    }
+
+    private void writeEntry(ZipOutputStream zipOutputStream, Set<String> entries, String name, Workbook workbook, ExportMetrics metrics)
+            throws IOException {
+        String entryName = name;
+        for (int copy = 2; !entries.add(entryName); copy++) {
+            entryName = String.format(DUPLICATED_NAME, name, copy);
+        }
+        zipOutputStream.putNextEntry(new ZipEntry(entryName + formsAsXls.getFormat().getExtension()));
+        formsAsXls.write(workbook, zipOutputStream, metrics);
+        zipOutputStream.closeEntry();
+        metrics.increment(ExportCounter.BUNDLED_DOCUMENTS);
+    }
+
+    /**
+     * Headers defined by the user for the forms of a workbook.
+     */
+    private List<String> getFormHeaders(int firstForm) {
+        final List<String> formHeaders = formsAsXls.getFormHeaders();
+        if (formHeaders == null || firstForm >= formHeaders.size()) {
+            return null;
+        }
+        return formHeaders.subList(firstForm, Math.min(firstForm + formsPerWorkbook, formHeaders.size()));
+    }
+
+    /**
+     * The next forms of an iterator, up to a maximum.
+     */
+    private static final class FormRange implements Iterator<DroolsSubmittedForm> {
+        private final Iterator<DroolsSubmittedForm> forms;
+        private final int maxForms;
+        private int readForms = 0;
+
+        private FormRange(Iterator<DroolsSubmittedForm> forms, int maxForms) {
+            this.forms = forms;
+            this.maxForms = maxForms;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return readForms < maxForms && forms.hasNext();
+        }
+
+        @Override
+        public DroolsSubmittedForm next() {
+            readForms++;
+            return forms.next();
+        }
+
+        private int getForms() {
+            return readForms;
+        }
+    }
+}
@@ -31,4 +31,8 @@ public class InvalidXlsElementException extends Exception {
     public InvalidXlsElementException(Throwable e) {
         super(e);
     }
+
+    public InvalidXlsElementException(String text, Throwable e) {
+        super(text, e);
+    }
 }
@@ -0,0 +1,218 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@Test(groups = {"convertXls"})
+public class AppendXlsTest {
+    private static final String[] FORMS_AS_JSON = {TestForms.FRUSTRATIONS_1, TestForms.FRUSTRATIONS_2, TestForms.CADT, TestForms.FRUSTRATIONS_3};
+    private static final int LARGE_EXPORT_FORMS = 300;
+
+    private byte[] append(FormsAsXls xlsDocument, byte[] document) throws InvalidXlsElementException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        xlsDocument.append(new ByteArrayInputStream(document), outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private void checkAppend(List<DroolsSubmittedForm> forms, int firstBatch, XlsFormat format, XlsLayout layout)
+            throws IOException, InvalidXlsElementException {
+        FormsAsXls all = new FormsAsXls(forms, new ArrayList<>());
+        all.setFormat(format);
+        all.setLayout(layout);
+
+        FormsAsXls first = new FormsAsXls(forms.subList(0, firstBatch), new ArrayList<>());
+        first.setFormat(format);
+        first.setLayout(layout);
+        first.setAppendable(true);
+
+        FormsAsXls second = new FormsAsXls(forms.subList(firstBatch, forms.size()), new ArrayList<>());
+        second.setLayout(layout);
+
+        Assert.assertEquals(TestForms.getContent(append(second, first.generate())), TestForms.getContent(all.generate()));
+    }
+
+    @Test
+    public void appendColumns() throws IOException, URISyntaxException, InvalidXlsElementException {
+        checkAppend(TestForms.get(FORMS_AS_JSON), 2, XlsFormat.XLS, XlsLayout.FORMS_AS_COLUMNS);
+        checkAppend(TestForms.get(FORMS_AS_JSON), 1, XlsFormat.XLSX, XlsLayout.FORMS_AS_COLUMNS);
+    }
+
+    @Test
+    public void appendRows() throws IOException, URISyntaxException, InvalidXlsElementException {
+        checkAppend(TestForms.get(FORMS_AS_JSON), 2, XlsFormat.XLS, XlsLayout.FORMS_AS_ROWS);
+        checkAppend(TestForms.get(FORMS_AS_JSON), 3, XlsFormat.XLSX, XlsLayout.FORMS_AS_ROWS);
+    }
+
+    @Test
+    public void appendOnNewSheets() throws IOException, URISyntaxException, InvalidXlsElementException {
+        List<DroolsSubmittedForm> forms = new ArrayList<>();
+        for (int i = 0; i < LARGE_EXPORT_FORMS; i++) {
+            forms.addAll(TestForms.get(FORMS_AS_JSON[i % 2]));
+        }
+        // The first sheet is almost full.
+        checkAppend(forms, 250, XlsFormat.XLS, XlsLayout.FORMS_AS_COLUMNS);
+    }
+
+    @Test
+    public void appendTwice() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls first = new FormsAsXls(TestForms.get(FORMS_AS_JSON[0]), new ArrayList<>());
+        first.setAppendable(true);
+        byte[] document = first.generate();
+        for (int i = 1; i < FORMS_AS_JSON.length; i++) {
+            document = append(new FormsAsXls(TestForms.get(FORMS_AS_JSON[i]), new ArrayList<>()), document);
+        }
+        Assert.assertEquals(TestForms.getContent(document),
+                TestForms.getContent(new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generate()));
+
+        // Styles are reused.
+        try (Workbook appended = WorkbookFactory.create(new ByteArrayInputStream(document));
+             Workbook original = WorkbookFactory.create(new ByteArrayInputStream(first.generate()))) {
+            Assert.assertEquals(appended.getNumCellStyles(), original.getNumCellStyles());
+        }
+    }
+
+    @Test
+    public void appendWithHeaders() throws IOException, URISyntaxException, InvalidXlsElementException {
+        List<String> headers = Arrays.asList("First", "Second", "Third", "Fourth");
+        for (int parallelism : new int[]{1, 2}) {
+            FormsAsXls first = new FormsAsXls(TestForms.get(FORMS_AS_JSON[0], FORMS_AS_JSON[1]), headers.subList(0, 2));
+            first.setAppendable(true);
+            FormsAsXls second = new FormsAsXls(TestForms.get(FORMS_AS_JSON[2], FORMS_AS_JSON[3]), headers.subList(2, 4));
+            second.setParallelism(parallelism);
+
+            Map<String, String> content = TestForms.getContent(append(second, first.generate()));
+            Assert.assertEquals(content, TestForms.getContent(new FormsAsXls(TestForms.get(FORMS_AS_JSON), headers).generate()));
+            Assert.assertTrue(content.values().stream().anyMatch(cells -> cells.contains("=Third\n")));
+            Assert.assertTrue(content.values().stream().anyMatch(cells -> cells.contains("=Fourth\n")));
+        }
+    }
+
+    @Test
+    public void appendToFile() throws IOException, URISyntaxException, InvalidXlsElementException {
+        Path folder = Files.createTempDirectory("AppendXls");
+        String path = folder + File.separator + "report";
+        FormsAsXls first = new FormsAsXls(TestForms.get(FORMS_AS_JSON[0]), new ArrayList<>());
+        first.setAppendable(true);
+        first.setFormat(XlsFormat.XLSX);
+        first.createFile(path);
+
+        FormsAsXls second = new FormsAsXls(TestForms.get(FORMS_AS_JSON[1]), new ArrayList<>());
+        second.setFormat(XlsFormat.XLSX);
+        second.append(path);
+
+        File file = new File(path + XlsFormat.XLSX.getExtension());
+        FormsAsXls all = new FormsAsXls(TestForms.get(FORMS_AS_JSON[0], FORMS_AS_JSON[1]), new ArrayList<>());
+        Assert.assertEquals(TestForms.getContent(Files.readAllBytes(file.toPath())), TestForms.getContent(all.generate()));
+        // No temporal files left.
+        Assert.assertEquals(folder.toFile().list().length, 1);
+        Assert.assertTrue(file.delete());
+        Assert.assertTrue(folder.toFile().delete());
+    }
+
+    @Test(expectedExceptions = InvalidXlsElementException.class)
+    public void notAppendable() throws IOException, URISyntaxException, InvalidXlsElementException {
+        byte[] document = new FormsAsXls(TestForms.get(FORMS_AS_JSON[0]), new ArrayList<>()).generate();
+        append(new FormsAsXls(TestForms.get(FORMS_AS_JSON[1]), new ArrayList<>()), document);
+    }
+
+    @Test(expectedExceptions = InvalidXlsElementException.class)
+    public void differentLayout() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls first = new FormsAsXls(TestForms.get(FORMS_AS_JSON[0]), new ArrayList<>());
+        first.setAppendable(true);
+        FormsAsXls second = new FormsAsXls(TestForms.get(FORMS_AS_JSON[1]), new ArrayList<>());
+        second.setLayout(XlsLayout.FORMS_AS_ROWS);
+        append(second, first.generate());
+    }
+
+    /**
+     * Appends to a document after breaking one record of its index.
+     */
+    private String appendToBrokenIndex(int rowNumber, int column, Double value) throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls first = new FormsAsXls(TestForms.get(FORMS_AS_JSON[0]), new ArrayList<>());
+        first.setAppendable(true);
+        ByteArrayOutputStream broken = new ByteArrayOutputStream();
+        try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(first.generate()))) {
+            Row row = workbook.getSheet(ExportIndex.SHEET_NAME).getRow(rowNumber);
+            if (value == null) {
+                row.removeCell(row.getCell(column));
+            } else {
+                row.getCell(column).setCellValue(value);
+            }
+            workbook.write(broken);
+        }
+        try {
+            append(new FormsAsXls(TestForms.get(FORMS_AS_JSON[1]), new ArrayList<>()), broken.toByteArray());
+        } catch (InvalidXlsElementException e) {
+            return e.getMessage();
+        }
+        Assert.fail("Appended to a broken index.");
+        return null;
+    }
+
+    @Test
+    public void brokenIndex() throws IOException, URISyntaxException, InvalidXlsElementException {
+        Assert.assertEquals(appendToBrokenIndex(1, 2, null), "Invalid index on the document, missing value of the 'styles' record on row 1.");
+        Assert.assertEquals(appendToBrokenIndex(0, 0, null), "Invalid index on the document, missing 'layout' record on row 0.");
+        Assert.assertEquals(appendToBrokenIndex(ExportIndex.FIRST_RECORD_ROW, 1, 1.0),
+                "Invalid index on the document, cell 1 is not a text on row " + ExportIndex.FIRST_RECORD_ROW + ".");
+    }
+
+    @Test
+    public void indexSize() throws IOException, InvalidXlsElementException {
+        List<String> headers = new ArrayList<>();
+        for (int i = 0; i < SpreadsheetVersion.EXCEL97.getMaxRows(); i++) {
+            headers.add("Form " + i);
+        }
+        DroolsFormConversor conversor = new FormsAsXls(new ArrayList<>(), new ArrayList<>()).createConversor(true);
+        try (FormsLayout formsLayout = new FormsLayout(headers); Workbook xls = new HSSFWorkbook(); Workbook xlsx = new XSSFWorkbook()) {
+            conversor.checkIndexSize(xlsx, ExportIndex.FIRST_RECORD_ROW, formsLayout, 0, 0);
+            try {
+                conversor.checkIndexSize(xls, ExportIndex.FIRST_RECORD_ROW, formsLayout, 0, 0);
+                Assert.fail("The index does not fit on a XLS document.");
+            } catch (InvalidXlsElementException e) {
+                Assert.assertTrue(e.getMessage().startsWith("Sheet '" + ExportIndex.SHEET_NAME + "' needs"), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Test(groups = {"convertXls"})
+public class AsyncXlsTest {
+    private static final String[] FORMS_AS_JSON = {TestForms.FRUSTRATIONS_1, TestForms.FRUSTRATIONS_2, TestForms.CADT};
+    private static final int TIMEOUT_SECONDS = 30;
+
+    /**
+     * Forms that are not read until released.
+     */
+    private static final class BlockedForms implements Iterable<DroolsSubmittedForm> {
+        private final List<DroolsSubmittedForm> forms;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private BlockedForms(List<DroolsSubmittedForm> forms) {
+            this.forms = forms;
+        }
+
+        @Override
+        public Iterator<DroolsSubmittedForm> iterator() {
+            Iterator<DroolsSubmittedForm> iterator = forms.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    started.countDown();
+                    try {
+                        released.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public DroolsSubmittedForm next() {
+                    return iterator.next();
+                }
+            };
+        }
+    }
+
+    @Test
+    public void generateAsync() throws Exception {
+        byte[] expected = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generate();
+        Assert.assertEquals(new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generateAsync().get(TIMEOUT_SECONDS, TimeUnit.SECONDS), expected);
+
+        try (ExportExecutor executor = new ExportExecutor(2, 2)) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ExportReport report = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generateAsync(executor, outputStream)
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.assertEquals(outputStream.toByteArray(), expected);
+            Assert.assertEquals(report.getCount(ExportCounter.BYTES_WRITTEN), expected.length);
+        }
+    }
+
+    @Test
+    public void failedExport() throws Exception {
+        try (ExportExecutor executor = new ExportExecutor(1, 1)) {
+            FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+            CompletableFuture<ExportReport> future = xlsDocument.generateAsync(executor, new ByteArrayOutputStream() {
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    throw new IllegalStateException("Sink closed.");
+                }
+            });
+            try {
+                future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                Assert.fail("The sink cannot be written.");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof InvalidXlsElementException);
+            }
+        }
+    }
+
+    @Test
+    public void errorOnExport() throws Exception {
+        try (ExportExecutor executor = new ExportExecutor(1, 1)) {
+            FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+            CompletableFuture<ExportReport> future = xlsDocument.generateAsync(executor, new ByteArrayOutputStream() {
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    throw new OutOfMemoryError("Sink out of memory.");
+                }
+            });
+            try {
+                future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                Assert.fail("The sink cannot be written.");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof OutOfMemoryError);
+            }
+            // The executor can still run exports.
+            Assert.assertNotNull(new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generateAsync(executor).get(TIMEOUT_SECONDS,
+                    TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void backpressureAndCancellation() throws Exception {
+        try (ExportExecutor executor = new ExportExecutor(1, 1)) {
+            BlockedForms blockedForms = new BlockedForms(TestForms.get(FORMS_AS_JSON));
+            CompletableFuture<byte[]> running = new FormsAsXls(blockedForms, new ArrayList<>()).generateAsync(executor);
+            Assert.assertTrue(blockedForms.started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertEquals(executor.getRunningExports(), 1);
+
+            CompletableFuture<byte[]> queued = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generateAsync(executor);
+            Assert.assertEquals(executor.getQueuedExports(), 1);
+
+            // Queue is full.
+            CompletableFuture<byte[]> rejected = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generateAsync(executor);
+            Assert.assertTrue(rejected.isCompletedExceptionally());
+            try {
+                rejected.get();
+                Assert.fail("Export must be rejected.");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+
+            // Cancelling a waiting export removes it from the queue.
+            Assert.assertTrue(queued.cancel(true));
+            Assert.assertEquals(executor.getQueuedExports(), 0);
+
+            // Cancelling a running export interrupts it.
+            Assert.assertTrue(running.cancel(true));
+            try {
+                running.get();
+                Assert.fail("Export is cancelled.");
+            } catch (CancellationException e) {
+                // Expected.
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (executor.getRunningExports() > 0) {
+                if (System.nanoTime() > deadline) {
+                    throw new TimeoutException("Cancelled export still running.");
+                }
+                Thread.sleep(10);
+            }
+
+            Assert.assertEquals(new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generateAsync(executor).get(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                    new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generate());
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidExecutor() {
+        new ExportExecutor(0, 1).close();
+    }
+}
@@ -0,0 +1,117 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+@Test(groups = {"convertXls"})
+public class BundleXlsTest {
+    private static final String[] FORMS_AS_JSON = {TestForms.FRUSTRATIONS_1, TestForms.FRUSTRATIONS_2, TestForms.CADT, TestForms.FRUSTRATIONS_3};
+    private static final int FORMS_PER_WORKBOOK = 3;
+
+    @Test
+    public void formRanges() throws IOException, URISyntaxException, InvalidXlsElementException {
+        List<String> headers = Arrays.asList("A", "B", "C", "D");
+        XlsBundle bundle = new XlsBundle(new FormsAsXls(TestForms.get(FORMS_AS_JSON), headers));
+        bundle.setFormsPerWorkbook(FORMS_PER_WORKBOOK);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExportReport report = bundle.generate(outputStream);
+
+        Map<String, byte[]> entries = TestForms.getEntries(outputStream.toByteArray());
+        Assert.assertEquals(new ArrayList<>(entries.keySet()), Arrays.asList("forms 1-3.xls", "forms 4-4.xls"));
+        Assert.assertEquals(report.getCount(ExportCounter.FORMS), FORMS_AS_JSON.length);
+        Assert.assertEquals(report.getCount(ExportCounter.BUNDLED_DOCUMENTS), entries.size());
+        Assert.assertEquals(report.getCount(ExportCounter.BUNDLE_BYTES), outputStream.size());
+
+        List<DroolsSubmittedForm> forms = TestForms.get(FORMS_AS_JSON);
+        Assert.assertEquals(TestForms.getContent(entries.get("forms 1-3.xls")),
+                TestForms.getContent(new FormsAsXls(forms.subList(0, FORMS_PER_WORKBOOK), headers.subList(0, FORMS_PER_WORKBOOK)).generate()));
+        Assert.assertEquals(TestForms.getContent(entries.get("forms 4-4.xls")),
+                TestForms.getContent(new FormsAsXls(forms.subList(FORMS_PER_WORKBOOK, forms.size()), headers.subList(FORMS_PER_WORKBOOK, forms.size()))
+                        .generate()));
+    }
+
+    @Test
+    public void categories() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        xlsDocument.setFormat(XlsFormat.XLSX);
+        Map<String, String> expected = TestForms.getContent(xlsDocument.generate());
+
+        XlsBundle bundle = new XlsBundle(xlsDocument);
+        bundle.setSharding(BundleSharding.CATEGORY);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bundle.generate(outputStream);
+
+        Map<String, byte[]> entries = TestForms.getEntries(outputStream.toByteArray());
+        Assert.assertEquals(entries.size(), expected.size());
+        for (Map.Entry<String, String> sheet : expected.entrySet()) {
+            Map<String, String> content = TestForms.getContent(entries.get(sheet.getKey() + XlsFormat.XLSX.getExtension()));
+            Assert.assertEquals(content.size(), 1);
+            Assert.assertEquals(content.get(sheet.getKey()), sheet.getValue());
+        }
+    }
+
+    @Test
+    public void compressionLevel() throws IOException, URISyntaxException, InvalidXlsElementException {
+        XlsBundle bundle = new XlsBundle(new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()));
+        bundle.setCompressionLevel(Deflater.NO_COMPRESSION);
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        ExportReport report = bundle.generate(stored);
+        Assert.assertTrue(report.getCount(ExportCounter.BUNDLE_BYTES) > report.getCount(ExportCounter.BYTES_WRITTEN));
+
+        bundle.setCompressionLevel(Deflater.BEST_COMPRESSION);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        bundle.generate(compressed);
+        Assert.assertTrue(compressed.size() < stored.size());
+
+        Map<String, byte[]> storedEntries = TestForms.getEntries(stored.toByteArray());
+        Map<String, byte[]> compressedEntries = TestForms.getEntries(compressed.toByteArray());
+        Assert.assertEquals(compressedEntries.keySet(), storedEntries.keySet());
+        for (String entry : storedEntries.keySet()) {
+            Assert.assertEquals(compressedEntries.get(entry), storedEntries.get(entry));
+        }
+    }
+
+    @Test
+    public void emptyBundle() throws InvalidXlsElementException, IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new XlsBundle(new FormsAsXls(new ArrayList<DroolsSubmittedForm>(), new ArrayList<>())).generate(outputStream);
+        Assert.assertTrue(TestForms.getEntries(outputStream.toByteArray()).isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidCompressionLevel() {
+        new XlsBundle(new FormsAsXls(new ArrayList<DroolsSubmittedForm>(), new ArrayList<>())).setCompressionLevel(Deflater.BEST_COMPRESSION + 1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Many exports running at the same time must generate exactly the same document.
+ */
+@Test(groups = {"convertXls"})
+public class ConcurrentXlsTest {
+    private static final String[] FORMS_AS_JSON = {TestForms.CADT, TestForms.FRUSTRATIONS_1, TestForms.FRUSTRATIONS_2,
+            TestForms.FRUSTRATIONS_3};
+    private static final int THREADS = 8;
+    private static final int EXPORTS = 64;
+
+    private List<DroolsSubmittedForm> droolsSubmittedForms;
+
+    @BeforeClass
+    public void loadForms() throws IOException, URISyntaxException {
+        droolsSubmittedForms = TestForms.get(FORMS_AS_JSON);
+    }
+
+    private List<byte[]> runConcurrently(Callable<byte[]> export) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < EXPORTS; i++) {
+                results.add(executor.submit(export));
+            }
+            List<byte[]> documents = new ArrayList<>();
+            for (Future<byte[]> result : results) {
+                documents.add(result.get());
+            }
+            return documents;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrentGenerate() throws Exception {
+        FormsAsXls xlsDocument = new FormsAsXls(droolsSubmittedForms, new ArrayList<>());
+        byte[] expected = xlsDocument.generate();
+        for (byte[] document : runConcurrently(xlsDocument::generate)) {
+            Assert.assertEquals(document, expected);
+        }
+    }
+
+    @Test
+    public void sharedConversor() throws Exception {
+        DroolsFormConversor conversor = new DroolsFormConversor();
+        Callable<byte[]> export = () -> {
+            try (HSSFWorkbook workbook = new HSSFWorkbook()) {
+                conversor.createXlsDocument(workbook, droolsSubmittedForms, new ArrayList<>());
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                workbook.write(outputStream);
+                return outputStream.toByteArray();
+            }
+        };
+        byte[] expected = export.call();
+        for (byte[] document : runConcurrently(export)) {
+            Assert.assertEquals(document, expected);
+        }
+    }
+}
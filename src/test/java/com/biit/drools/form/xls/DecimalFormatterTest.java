@@ -0,0 +1,60 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.text.DecimalFormat;
+import java.util.Random;
+
+@Test(groups = {"convertXls"})
+public class DecimalFormatterTest {
+    private static final int VALUES = 100000;
+
+    private void check(double value) {
+        String expected = new DecimalFormat("##.###").format(value);
+        Assert.assertEquals(DecimalFormatter.format(value), expected, "Value " + value);
+        if (Double.isFinite(value)) {
+            // Numeric cells store the same value that is shown.
+            Assert.assertEquals(new DecimalFormat("##.###").format(DecimalFormatter.round(value)), expected, "Rounded value " + value);
+        }
+    }
+
+    @Test
+    public void specialValues() {
+        for (double value : new double[]{0, -0.0, 1, -1, 0.5, 0.0005, 0.0015, 0.0025, -0.0001, 0.7775, 2.0005, 9.9995, 0.1, 1e-10,
+                123456789.1235, 1e15, Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            check(value);
+        }
+    }
+
+    @Test
+    public void randomValues() {
+        Random random = new Random(0);
+        for (int i = 0; i < VALUES; i++) {
+            check(random.nextDouble() * 100);
+            check((random.nextInt(20000) - 10000) / 2000.0);
+            check(random.nextInt(100000) + 0.0005 * random.nextInt(3));
+        }
+    }
+}
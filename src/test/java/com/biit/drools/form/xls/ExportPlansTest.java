@@ -0,0 +1,84 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Test(groups = {"convertXls"})
+public class ExportPlansTest {
+
+    @Test
+    public void samePlan() throws IOException, URISyntaxException {
+        ExportPlans plans = new ExportPlans();
+        ExportPlans.Plan plan = plans.getPlan(FormIndex.of(TestForms.getForm(TestForms.FRUSTRATIONS_1)));
+        Assert.assertTrue(plan.isCatalogued());
+        Assert.assertTrue(plan.getQuestions() > 0);
+        Assert.assertSame(plans.getPlan(FormIndex.of(TestForms.getForm(TestForms.FRUSTRATIONS_1))), plan);
+        Assert.assertNotSame(plans.getPlan(FormIndex.of(TestForms.getForm(TestForms.CADT))), plan);
+        Assert.assertEquals(plans.size(), 2);
+    }
+
+    @Test
+    public void changedDefinition() throws IOException, URISyntaxException {
+        ExportPlans plans = new ExportPlans();
+        ExportPlans.Plan plan = plans.getPlan(FormIndex.of(TestForms.getForm(TestForms.FRUSTRATIONS_1)));
+
+        // Same name with a different label on a question.
+        FormIndex changed = FormIndex.of(TestForms.getForm(TestForms.FRUSTRATIONS_1));
+        changed.getCategories().stream().filter(category -> category.getQuestions().length > 0).findFirst().get().getQuestions()[0]
+                .setText("Changed question");
+        ExportPlans.Plan changedPlan = plans.getPlan(changed);
+        Assert.assertNotSame(changedPlan, plan);
+        Assert.assertEquals(changedPlan.getLabel(0), "Changed question");
+        Assert.assertEquals(plans.size(), 2);
+    }
+
+    @Test
+    public void sheetNames() throws IOException, URISyntaxException {
+        ExportPlans.Plan plan = new ExportPlans().getPlan(FormIndex.of(TestForms.getForm(TestForms.CADT)));
+        for (int category = 0; category < plan.getCategories(); category++) {
+            Assert.assertEquals(plan.getSheetName(category), FormsLayout.parseInvalidCharacters(plan.getSheetText(category)));
+            Assert.assertTrue(plan.getFirstQuestion(category) < plan.getQuestionsEnd(category));
+        }
+        Assert.assertEquals(plan.getQuestionsEnd(plan.getCategories() - 1), plan.getQuestions());
+    }
+
+    @Test
+    public void plansOfTheExport() throws IOException, URISyntaxException, InvalidXlsElementException {
+        List<DroolsSubmittedForm> forms = new ArrayList<>();
+        forms.add(TestForms.getForm(TestForms.FRUSTRATIONS_1));
+        forms.add(TestForms.getForm(TestForms.CADT));
+        forms.add(TestForms.getForm(TestForms.FRUSTRATIONS_1));
+        forms.add(TestForms.getForm(TestForms.CADT));
+        ExportReport report = new FormsAsXls(forms, new ArrayList<>()).generate(new ByteArrayOutputStream());
+        Assert.assertEquals(report.getCount(ExportCounter.EXPORT_PLANS), 2);
+    }
+}
@@ -0,0 +1,59 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedCategory;
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.DroolsSubmittedQuestion;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Test(groups = {"convertXls"})
+public class FormIndexTest {
+    private static final String[] FORMS_AS_JSON = {TestForms.CADT, TestForms.FRUSTRATIONS_1};
+
+    @Test
+    public void sameElementsAsHierarchy() throws IOException, URISyntaxException {
+        for (String file : FORMS_AS_JSON) {
+            DroolsSubmittedForm form = TestForms.getForm(file);
+            FormIndex formIndex = FormIndex.of(form);
+
+            List<DroolsSubmittedCategory> categories = new ArrayList<>(form.getAllChildrenInHierarchy(DroolsSubmittedCategory.class));
+            Assert.assertEquals(formIndex.getCategories().size(), categories.size());
+            for (int i = 0; i < categories.size(); i++) {
+                FormIndex.IndexedCategory indexedCategory = formIndex.getCategories().get(i);
+                Assert.assertSame(indexedCategory.getCategory(), categories.get(i));
+                Assert.assertEquals(Arrays.asList(indexedCategory.getQuestions()),
+                        new ArrayList<>(categories.get(i).getAllChildrenInHierarchy(DroolsSubmittedQuestion.class)));
+                Assert.assertSame(formIndex.getElement(categories.get(i).getXPath()), categories.get(i));
+            }
+            Assert.assertSame(formIndex.getElement(form.getXPath()), form);
+            Assert.assertNull(formIndex.getElement("/unknown"));
+        }
+    }
+}
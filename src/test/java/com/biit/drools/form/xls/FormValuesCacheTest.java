@@ -0,0 +1,138 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@Test(groups = {"convertXls"})
+public class FormValuesCacheTest {
+    // The first form is twice, parsed on different objects.
+    private static final String[] FORMS_AS_JSON = {TestForms.FRUSTRATIONS_1, TestForms.FRUSTRATIONS_1, TestForms.CADT, TestForms.FRUSTRATIONS_2};
+
+    @Test
+    public void fingerprint() throws IOException, URISyntaxException {
+        List<DroolsSubmittedForm> forms = TestForms.get(FORMS_AS_JSON);
+        Assert.assertEquals(FormFingerprint.of(FormIndex.of(forms.get(0))), FormFingerprint.of(FormIndex.of(forms.get(1))));
+        Assert.assertNotEquals(FormFingerprint.of(FormIndex.of(forms.get(0))), FormFingerprint.of(FormIndex.of(forms.get(3))));
+    }
+
+    @Test
+    public void fingerprintOfNesting() {
+        // The same elements in the same order, with the question inside or after the group.
+        DroolsSubmittedForm nested = DroolsSubmittedForm.getFromJson(getNestingForm(true));
+        DroolsSubmittedForm flat = DroolsSubmittedForm.getFromJson(getNestingForm(false));
+        Assert.assertNotEquals(FormFingerprint.of(FormIndex.of(nested)), FormFingerprint.of(FormIndex.of(flat)));
+        Assert.assertEquals(FormFingerprint.of(FormIndex.of(nested)), FormFingerprint.of(FormIndex.of(DroolsSubmittedForm.getFromJson(getNestingForm(true)))));
+    }
+
+    private String getNestingForm(boolean nested) {
+        String question = "{\"class\": \"com.biit.drools.form.DroolsSubmittedQuestion\", \"tag\": \"question\", \"children\": [], \"answers\": [\"a\"]}";
+        String group = "{\"class\": \"com.biit.drools.form.DroolsSubmittedGroup\", \"tag\": \"group\", \"children\": [" + (nested ? question : "") + "]}";
+        return "{\"class\": \"com.biit.drools.form.DroolsSubmittedForm\", \"tag\": \"form\", \"children\": [{\"class\": "
+                + "\"com.biit.drools.form.DroolsSubmittedCategory\", \"tag\": \"category\", \"children\": [" + group + (nested ? "" : ", " + question)
+                + "]}]}";
+    }
+
+    @Test
+    public void serialization() throws IOException, URISyntaxException {
+        for (DroolsSubmittedForm form : TestForms.get(FORMS_AS_JSON)) {
+            byte[] bytes = FormValues.extract(form).toBytes();
+            Assert.assertEquals(FormValues.fromBytes(bytes).toBytes(), bytes);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void invalidBytes() throws IOException {
+        FormValues.fromBytes(new byte[]{0, 0, 0, 1, 0, 0, 0, 1, (byte) 0xFF});
+    }
+
+    @Test
+    public void inHeapCache() throws IOException, URISyntaxException, InvalidXlsElementException {
+        byte[] expected = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generate();
+
+        LruFormValuesCache cache = new LruFormValuesCache(10);
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        xlsDocument.setFormValuesCache(cache);
+        Assert.assertEquals(xlsDocument.generate(), expected);
+        Assert.assertEquals(cache.getStatistics().getHits(), 1);
+        Assert.assertEquals(cache.getStatistics().getMisses(), 3);
+        Assert.assertEquals(cache.getStatistics().getSize(), 3);
+
+        Assert.assertEquals(xlsDocument.generate(), expected);
+        Assert.assertEquals(cache.getStatistics().getHits(), 5);
+        Assert.assertEquals(cache.getStatistics().getHitRate(), 5.0 / 8);
+    }
+
+    @Test
+    public void inHeapEviction() throws IOException, URISyntaxException, InvalidXlsElementException {
+        LruFormValuesCache cache = new LruFormValuesCache(1);
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        xlsDocument.setFormValuesCache(cache);
+        xlsDocument.generate();
+        Assert.assertEquals(cache.getStatistics().getSize(), 1);
+        Assert.assertEquals(cache.getStatistics().getEvictions(), 2);
+    }
+
+    @Test
+    public void diskCache() throws IOException, URISyntaxException, InvalidXlsElementException {
+        byte[] expected = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generate();
+        Path folder = Files.createTempDirectory("FormValuesCache");
+        try {
+            FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+            DiskFormValuesCache cache = new DiskFormValuesCache(folder, 1024 * 1024);
+            xlsDocument.setFormValuesCache(cache);
+            Assert.assertEquals(xlsDocument.generate(), expected);
+            Assert.assertEquals(cache.getStatistics().getMisses(), 3);
+
+            // Forms cached by a previous execution.
+            DiskFormValuesCache reloaded = new DiskFormValuesCache(folder, 1024 * 1024);
+            xlsDocument.setFormValuesCache(reloaded);
+            Assert.assertEquals(xlsDocument.generate(), expected);
+            Assert.assertEquals(reloaded.getStatistics().getHits(), 4);
+            Assert.assertEquals(reloaded.getStatistics().getMisses(), 0);
+
+            // Smaller than the three forms.
+            DiskFormValuesCache small = new DiskFormValuesCache(folder, 4096);
+            Assert.assertTrue(small.getStatistics().getEvictions() > 0);
+            Assert.assertTrue(small.getStatistics().getSize() < 3);
+        } finally {
+            File[] files = folder.toFile().listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    Assert.assertTrue(file.delete());
+                }
+            }
+            Assert.assertTrue(folder.toFile().delete());
+        }
+    }
+}
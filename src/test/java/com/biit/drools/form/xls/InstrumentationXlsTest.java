@@ -0,0 +1,151 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+@Test(groups = {"convertXls"})
+public class InstrumentationXlsTest {
+    private static final String[] FORMS_AS_JSON = {TestForms.FRUSTRATIONS_1, TestForms.FRUSTRATIONS_2, TestForms.CADT};
+
+    private static final class RecordingInstrumentation implements ExportInstrumentation {
+        private final Map<ExportPhase, Long> phases = new EnumMap<>(ExportPhase.class);
+        private final Map<ExportCounter, Long> counters = new EnumMap<>(ExportCounter.class);
+        private ExportReport report;
+        private Exception exception;
+
+        @Override
+        public void phaseCompleted(ExportPhase phase, long nanos) {
+            phases.put(phase, nanos);
+        }
+
+        @Override
+        public void counted(ExportCounter counter, long value) {
+            counters.put(counter, value);
+        }
+
+        @Override
+        public void exportCompleted(ExportReport report) {
+            this.report = report;
+        }
+
+        @Override
+        public void exportFailed(ExportReport report, Exception exception) {
+            this.report = report;
+            this.exception = exception;
+        }
+    }
+
+    @Test
+    public void report() throws IOException, URISyntaxException, InvalidXlsElementException {
+        for (XlsFormat format : XlsFormat.values()) {
+            FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+            xlsDocument.setFormat(format);
+            RecordingInstrumentation instrumentation = new RecordingInstrumentation();
+            xlsDocument.setInstrumentation(instrumentation);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ExportReport report = xlsDocument.generate(outputStream);
+
+            Assert.assertSame(instrumentation.report, report);
+            Assert.assertNull(instrumentation.exception);
+            Assert.assertEquals(report.getCount(ExportCounter.FORMS), FORMS_AS_JSON.length);
+            Assert.assertEquals(report.getCount(ExportCounter.BYTES_WRITTEN), outputStream.size());
+            Assert.assertTrue(report.getCount(ExportCounter.SHEETS) > 1);
+            Assert.assertTrue(report.getCount(ExportCounter.ROWS) > report.getCount(ExportCounter.SHEETS));
+            Assert.assertTrue(report.getCount(ExportCounter.CELLS) > report.getCount(ExportCounter.ROWS));
+            for (ExportPhase phase : new ExportPhase[]{ExportPhase.READ_FORMS, ExportPhase.LAYOUT, ExportPhase.WRITE_CELLS,
+                    ExportPhase.RESIZE_COLUMNS, ExportPhase.WRITE_DOCUMENT}) {
+                Assert.assertTrue(report.getNanos(phase) > 0, phase.name());
+                Assert.assertEquals(instrumentation.phases.get(phase), Long.valueOf(report.getNanos(phase)));
+            }
+            Assert.assertEquals(report.getNanos(ExportPhase.READ_DOCUMENT), 0);
+            Assert.assertFalse(instrumentation.phases.containsKey(ExportPhase.READ_DOCUMENT));
+            Assert.assertEquals(instrumentation.counters.size(), ExportCounter.values().length);
+
+            long total = 0;
+            for (ExportPhase phase : ExportPhase.values()) {
+                total += report.getNanos(phase);
+            }
+            Assert.assertEquals(report.getTotalNanos(), total);
+        }
+    }
+
+    @Test
+    public void appendReport() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        xlsDocument.setAppendable(true);
+        ExportReport report = xlsDocument.generate(new ByteArrayOutputStream());
+        Assert.assertTrue(report.getNanos(ExportPhase.WRITE_INDEX) > 0);
+        byte[] document = xlsDocument.generate();
+
+        FormsAsXls newForms = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        ExportReport appendReport = newForms.append(new ByteArrayInputStream(document), new ByteArrayOutputStream());
+        Assert.assertTrue(appendReport.getNanos(ExportPhase.READ_DOCUMENT) > 0);
+        Assert.assertEquals(appendReport.getCount(ExportCounter.FORMS), FORMS_AS_JSON.length);
+        // Existing sheets are completed.
+        Assert.assertEquals(appendReport.getCount(ExportCounter.SHEETS), 0);
+        Assert.assertTrue(appendReport.getCount(ExportCounter.CELLS) > 0);
+    }
+
+    @Test
+    public void failedExport() throws IOException, URISyntaxException, InvalidXlsElementException {
+        byte[] document = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).generate();
+
+        FormsAsXls newForms = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        RecordingInstrumentation instrumentation = new RecordingInstrumentation();
+        newForms.setInstrumentation(instrumentation);
+        try {
+            newForms.append(new ByteArrayInputStream(document), new ByteArrayOutputStream());
+            Assert.fail("Document is not appendable.");
+        } catch (InvalidXlsElementException e) {
+            Assert.assertNotNull(instrumentation.exception);
+            Assert.assertTrue(instrumentation.report.getNanos(ExportPhase.READ_DOCUMENT) > 0);
+            Assert.assertTrue(instrumentation.phases.isEmpty());
+        }
+    }
+
+    @Test
+    public void metricsInstrumentation() throws IOException, URISyntaxException, InvalidXlsElementException {
+        Map<String, Long> timers = new HashMap<>();
+        Map<String, Long> counters = new HashMap<>();
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        xlsDocument.setInstrumentation(new MetricsInstrumentation("xls.export", timers::put, counters::put));
+        byte[] document = xlsDocument.generate();
+
+        Assert.assertTrue(timers.get("xls.export.write_cells") > 0);
+        Assert.assertEquals(counters.get("xls.export.forms"), Long.valueOf(FORMS_AS_JSON.length));
+        Assert.assertEquals(counters.get("xls.export.bytes_written"), Long.valueOf(document.length));
+        Assert.assertEquals(counters.get("xls.export.swallowed_exceptions"), Long.valueOf(0));
+    }
+}
@@ -0,0 +1,127 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@Test(groups = {"convertXls"})
+public class JfrEventsXlsTest {
+    private static final String[] FORMS_AS_JSON = {TestForms.FRUSTRATIONS_1, TestForms.FRUSTRATIONS_2, TestForms.CADT};
+
+    private List<RecordedEvent> getEvents(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> selected = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                selected.add(event);
+            }
+        }
+        return selected;
+    }
+
+    private List<RecordedEvent> record(Recording recording) throws IOException {
+        Path file = Files.createTempFile("export", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void exportEvents() throws IOException, URISyntaxException, InvalidXlsElementException {
+        List<RecordedEvent> events;
+        ExportReport report;
+        try (Recording recording = new Recording()) {
+            recording.enable(ExportEvent.NAME);
+            recording.enable(SheetEvent.NAME);
+            recording.enable(ResizeColumnsEvent.NAME);
+            recording.enable(WriteDocumentEvent.NAME);
+            recording.start();
+            FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+            xlsDocument.setFormat(XlsFormat.XLSX);
+            report = xlsDocument.generate(new ByteArrayOutputStream());
+            recording.stop();
+            events = record(recording);
+        }
+
+        List<RecordedEvent> exports = getEvents(events, ExportEvent.NAME);
+        Assert.assertEquals(exports.size(), 1);
+        Assert.assertEquals(exports.get(0).getString("format"), XlsFormat.XLSX.name());
+        Assert.assertFalse(exports.get(0).getBoolean("appended"));
+        Assert.assertEquals(exports.get(0).getLong("forms"), FORMS_AS_JSON.length);
+        Assert.assertEquals(exports.get(0).getLong("cells"), report.getCount(ExportCounter.CELLS));
+        Assert.assertEquals(exports.get(0).getLong("bytes"), report.getCount(ExportCounter.BYTES_WRITTEN));
+
+        List<RecordedEvent> sheets = getEvents(events, SheetEvent.NAME);
+        Assert.assertEquals(sheets.size(), report.getCount(ExportCounter.SHEETS));
+        long cells = 0;
+        for (RecordedEvent sheet : sheets) {
+            Assert.assertNotNull(sheet.getString("sheet"));
+            Assert.assertEquals(sheet.getLong("forms"), FORMS_AS_JSON.length);
+            cells += sheet.getLong("cells");
+        }
+        Assert.assertEquals(cells, report.getCount(ExportCounter.CELLS));
+
+        Assert.assertEquals(getEvents(events, ResizeColumnsEvent.NAME).size(), sheets.size());
+
+        List<RecordedEvent> writes = getEvents(events, WriteDocumentEvent.NAME);
+        Assert.assertEquals(writes.size(), 1);
+        Assert.assertEquals(writes.get(0).getLong("bytes"), report.getCount(ExportCounter.BYTES_WRITTEN));
+    }
+
+    @Test
+    public void appendEvents() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        xlsDocument.setAppendable(true);
+        byte[] document = xlsDocument.generate();
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(ExportEvent.NAME);
+            recording.start();
+            new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).append(new ByteArrayInputStream(document), new ByteArrayOutputStream());
+            recording.stop();
+            events = record(recording);
+        }
+
+        List<RecordedEvent> exports = getEvents(events, ExportEvent.NAME);
+        Assert.assertEquals(exports.size(), 1);
+        Assert.assertTrue(exports.get(0).getBoolean("appended"));
+        Assert.assertEquals(exports.get(0).getString("format"), XlsFormat.XLS.name());
+        Assert.assertEquals(exports.get(0).getLong("forms"), FORMS_AS_JSON.length);
+    }
+}
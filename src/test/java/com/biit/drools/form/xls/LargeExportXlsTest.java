@@ -0,0 +1,79 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+
+@Test(groups = {"convertXls"})
+public class LargeExportXlsTest {
+    private static final String FORM_AS_JSON = TestForms.FRUSTRATIONS_1;
+    private static final int FORMS = 300;
+
+    @Test
+    public void columnNames() {
+        Assert.assertEquals(DroolsFormConversor.getColumnName(0), "A");
+        Assert.assertEquals(DroolsFormConversor.getColumnName(25), "Z");
+        Assert.assertEquals(DroolsFormConversor.getColumnName(26), "AA");
+        Assert.assertEquals(DroolsFormConversor.getColumnName(701), "ZZ");
+        Assert.assertEquals(DroolsFormConversor.getColumnName(702), "AAA");
+    }
+
+    @Test
+    public void formsSplitOnSeveralSheets() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.repeat(FORMS, FORM_AS_JSON), new ArrayList<>());
+        try (Workbook workbook = new HSSFWorkbook(new ByteArrayInputStream(xlsDocument.generate()))) {
+            Assert.assertNotNull(workbook.getSheet("frustrations"));
+            Assert.assertNotNull(workbook.getSheet("frustrations (2)"));
+            Assert.assertNotNull(workbook.getSheet("Variables (2)"));
+            // Label column plus one column by form.
+            Assert.assertEquals(workbook.getSheet("frustrations").getRow(1).getLastCellNum(), 256);
+        }
+    }
+
+    @Test
+    public void formsAsRows() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.repeat(FORMS, FORM_AS_JSON), new ArrayList<>());
+        xlsDocument.setLayout(XlsLayout.FORMS_AS_ROWS);
+        try (Workbook workbook = new HSSFWorkbook(new ByteArrayInputStream(xlsDocument.generate()))) {
+            Assert.assertNull(workbook.getSheet("frustrations (2)"));
+            Assert.assertEquals(workbook.getSheet("frustrations").getLastRowNum(), FORMS + 1);
+            Assert.assertEquals(workbook.getSheet("Variables").getLastRowNum(), FORMS + 2);
+        }
+    }
+
+    @Test
+    public void parallelExtraction() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.repeat(FORMS, FORM_AS_JSON), new ArrayList<>());
+        byte[] sequential = xlsDocument.generate();
+        xlsDocument.setParallelism(4);
+        Assert.assertEquals(xlsDocument.generate(), sequential);
+    }
+}
@@ -23,11 +23,17 @@ package com.biit.drools.form.xls;
 
 import com.biit.drools.form.DroolsSubmittedForm;
 import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -73,6 +79,81 @@ public class MixedXlsTest {
         xlsDocument.createFile(OUTPUT_FOLDER + File.separator + "mixed.xls");
     }
 
+    @Test
+    public void multipleXlsxFile() throws IOException, URISyntaxException, InvalidXlsElementException {
+        List<DroolsSubmittedForm> droolsSubmittedForms = new ArrayList<>();
+        for (String file : new String[]{FORM_AS_JSON, FORM_AS_JSON_2, FORM_AS_JSON_3}) {
+            String text = new String(Files.readAllBytes(Paths.get(getClass().getClassLoader().getResource(file).toURI())));
+            DroolsSubmittedForm form = DroolsSubmittedForm.getFromJson(text);
+            Assert.assertNotNull(form);
+            droolsSubmittedForms.add(form);
+        }
+
+        // Convert to xlsx, flushing rows as soon as possible.
+        FormsAsXls xlsDocument = new FormsAsXls(droolsSubmittedForms, new ArrayList<>());
+        xlsDocument.setFormat(XlsFormat.XLSX);
+        xlsDocument.setRowAccessWindow(1);
+        xlsDocument.createFile(OUTPUT_FOLDER + File.separator + "mixed");
+        Assert.assertTrue(new File(OUTPUT_FOLDER + File.separator + "mixed.xlsx").exists());
+    }
+
+    @Test
+    public void generateOnStream() throws IOException, URISyntaxException, InvalidXlsElementException {
+        List<DroolsSubmittedForm> droolsSubmittedForms = new ArrayList<>();
+        for (String file : new String[]{FORM_AS_JSON, FORM_AS_JSON_2, FORM_AS_JSON_3}) {
+            String text = new String(Files.readAllBytes(Paths.get(getClass().getClassLoader().getResource(file).toURI())));
+            droolsSubmittedForms.add(DroolsSubmittedForm.getFromJson(text));
+        }
+
+        FormsAsXls xlsDocument = new FormsAsXls(droolsSubmittedForms, new ArrayList<>());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        xlsDocument.generate(outputStream);
+        Assert.assertEquals(outputStream.toByteArray(), xlsDocument.generate());
+    }
+
+    @Test
+    public void columnWidths() throws IOException, URISyntaxException, InvalidXlsElementException {
+        List<DroolsSubmittedForm> droolsSubmittedForms = new ArrayList<>();
+        String text = new String(Files.readAllBytes(Paths.get(getClass().getClassLoader().getResource(FORM_AS_JSON).toURI())));
+        droolsSubmittedForms.add(DroolsSubmittedForm.getFromJson(text));
+
+        FormsAsXls xlsDocument = new FormsAsXls(droolsSubmittedForms, new ArrayList<>());
+        try (HSSFWorkbook workbook = new HSSFWorkbook(new ByteArrayInputStream(xlsDocument.generate()))) {
+            Sheet sheet = workbook.getSheet("competency");
+            // Long list of answers is wider than the question label.
+            Assert.assertTrue(sheet.getColumnWidth(2) > sheet.getColumnWidth(1));
+        }
+
+        xlsDocument.setColumnWidthStrategy(ColumnWidthStrategy.NONE);
+        try (HSSFWorkbook workbook = new HSSFWorkbook(new ByteArrayInputStream(xlsDocument.generate()))) {
+            Sheet sheet = workbook.getSheet("competency");
+            Assert.assertEquals(sheet.getColumnWidth(2), sheet.getDefaultColumnWidth() * 256);
+        }
+    }
+
+    @Test
+    public void numericCells() throws IOException, URISyntaxException, InvalidXlsElementException {
+        List<DroolsSubmittedForm> droolsSubmittedForms = new ArrayList<>();
+        String text = new String(Files.readAllBytes(Paths.get(getClass().getClassLoader().getResource(FORM_AS_JSON_2).toURI())));
+        droolsSubmittedForms.add(DroolsSubmittedForm.getFromJson(text));
+
+        FormsAsXls xlsDocument = new FormsAsXls(droolsSubmittedForms, new ArrayList<>());
+        try (HSSFWorkbook workbook = new HSSFWorkbook(new ByteArrayInputStream(xlsDocument.generate()))) {
+            Sheet sheet = workbook.getSheet("Variables");
+            boolean found = false;
+            for (Row row : sheet) {
+                if (row.getCell(2) != null && "Frustration1Total".equals(row.getCell(2).getStringCellValue())) {
+                    Assert.assertEquals(row.getCell(3).getCellType(), CellType.NUMERIC);
+                    Assert.assertEquals(row.getCell(3).getNumericCellValue(), 7d);
+                    found = true;
+                }
+            }
+            Assert.assertTrue(found);
+            // Text stays as text.
+            Assert.assertEquals(sheet.getRow(1).getCell(1).getCellType(), CellType.STRING);
+        }
+    }
+
     private boolean deleteDirectory(File directoryToBeDeleted) {
         File[] allContents = directoryToBeDeleted.listFiles();
         if (allContents != null) {
@@ -0,0 +1,47 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = {"convertXls"})
+public class NumericScannerTest {
+
+    private boolean parses(String text) {
+        try {
+            Double.parseDouble(text);
+            return true;
+        } catch (NumberFormatException | NullPointerException e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void sameAsParseDouble() {
+        for (String text : new String[]{null, "", " ", "0", "-0", "+1", "12", "1.", ".5", ".", "-.", "1.5e3", "1.5E-3", "1e", "1e+", "e5", "1f", "2.5D",
+                "1x", " 7 ", "\t3.25\n", "1 2", "--1", "+-1", "NaN", "-Infinity", "Infinity ", "Inf", "nan", "0x1p3", "0x1.8P-1", "0x", "0xg",
+                "yes", "Teamwork", "12:00", "1,5", "1.2.3", "2021-05-04", "١", "1e5d", "1df"}) {
+            Assert.assertEquals(NumericScanner.isNumber(text), parses(text), "Text '" + text + "'");
+        }
+    }
+}
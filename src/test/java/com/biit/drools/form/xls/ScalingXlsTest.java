@@ -0,0 +1,70 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+
+/**
+ * Each form adds the same cells to the document, whatever the size of the export. The time of the export is measured by {@code ScalingBenchmark}.
+ */
+@Test(groups = {"convertXls"})
+public class ScalingXlsTest {
+    private static final String FORM_AS_JSON = TestForms.FRUSTRATIONS_1;
+    private static final int SMALL_EXPORT = 50;
+
+    private long getCells(int numberOfForms) throws IOException, URISyntaxException, InvalidXlsElementException {
+        return new FormsAsXls(TestForms.repeat(numberOfForms, FORM_AS_JSON), new ArrayList<>()).generate(new ByteArrayOutputStream())
+                .getCount(ExportCounter.CELLS);
+    }
+
+    @Test
+    public void oneTitleByForm() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.repeat(SMALL_EXPORT, FORM_AS_JSON), new ArrayList<>());
+        try (HSSFWorkbook workbook = new HSSFWorkbook(new ByteArrayInputStream(xlsDocument.generate()))) {
+            for (Sheet sheet : workbook) {
+                // Label columns and one column by form.
+                Assert.assertEquals(sheet.getRow(1).getPhysicalNumberOfCells(), sheet.getRow(1).getLastCellNum() - 1);
+                Assert.assertEquals(sheet.getRow(1).getLastCellNum() - sheet.getRow(1).getFirstCellNum(),
+                        SMALL_EXPORT + ("Variables".equals(sheet.getSheetName()) ? 2 : 1));
+            }
+        }
+    }
+
+    @Test
+    public void linearCells() throws IOException, URISyntaxException, InvalidXlsElementException {
+        long smallExport = getCells(SMALL_EXPORT);
+        long doubleExport = getCells(SMALL_EXPORT * 2);
+        long tripleExport = getCells(SMALL_EXPORT * 3);
+        Assert.assertTrue(doubleExport > smallExport);
+        Assert.assertEquals(tripleExport - doubleExport, doubleExport - smallExport);
+    }
+}
@@ -0,0 +1,103 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+
+@Test(groups = {"convertXls"})
+public class SharedStringsXlsTest {
+    private static final String[] FORMS_AS_JSON = {TestForms.FRUSTRATIONS_1, TestForms.FRUSTRATIONS_2, TestForms.CADT, TestForms.FRUSTRATIONS_3};
+
+    private String getContent(XSSFWorkbook workbook) {
+        StringBuilder content = new StringBuilder();
+        DataFormatter dataFormatter = new DataFormatter();
+        for (Sheet sheet : workbook) {
+            content.append(sheet.getSheetName()).append('\n');
+            for (Row row : sheet) {
+                for (Cell cell : row) {
+                    content.append(row.getRowNum()).append(':').append(cell.getColumnIndex()).append('=')
+                            .append(dataFormatter.formatCellValue(cell)).append('\n');
+                }
+            }
+        }
+        return content.toString();
+    }
+
+    @Test
+    public void dictionary() {
+        StringDictionary dictionary = new StringDictionary();
+        String first = dictionary.intern(new String("visionary"));
+        Assert.assertSame(dictionary.intern(new String("visionary")), first);
+        Assert.assertNull(dictionary.intern(null));
+        dictionary.intern("innovator");
+        Assert.assertEquals(dictionary.size(), 2);
+        Assert.assertEquals(dictionary.getDeduplicated(), 1);
+    }
+
+    @Test
+    public void sharedStringsTable() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls inlineDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        inlineDocument.setFormat(XlsFormat.XLSX);
+        inlineDocument.setSharedStrings(false);
+
+        FormsAsXls sharedDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        sharedDocument.setFormat(XlsFormat.XLSX);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExportReport report = sharedDocument.generate(outputStream);
+
+        Assert.assertTrue(report.getCount(ExportCounter.DEDUPLICATED_STRINGS) > 0);
+        Assert.assertTrue(report.getCount(ExportCounter.STRINGS) > 0);
+
+        try (XSSFWorkbook inlineWorkbook = new XSSFWorkbook(new ByteArrayInputStream(inlineDocument.generate()));
+             XSSFWorkbook sharedWorkbook = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Assert.assertEquals(getContent(sharedWorkbook), getContent(inlineWorkbook));
+            Assert.assertEquals(inlineWorkbook.getSharedStringSource().getUniqueCount(), 0);
+            int uniqueStrings = sharedWorkbook.getSharedStringSource().getUniqueCount();
+            Assert.assertTrue(uniqueStrings > 0);
+            Assert.assertTrue(sharedWorkbook.getSharedStringSource().getCount() > uniqueStrings);
+        }
+    }
+
+    @Test
+    public void appendedStrings() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        xlsDocument.setAppendable(true);
+        byte[] document = xlsDocument.generate();
+
+        ExportReport report = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()).append(new ByteArrayInputStream(document),
+                new ByteArrayOutputStream());
+        Assert.assertTrue(report.getCount(ExportCounter.DEDUPLICATED_STRINGS) > 0);
+    }
+}
@@ -0,0 +1,196 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Test(groups = {"convertXls"})
+public class SpillXlsTest {
+    private static final String[] FORMS_AS_JSON = {TestForms.FRUSTRATIONS_1, TestForms.FRUSTRATIONS_2, TestForms.CADT, TestForms.FRUSTRATIONS_3};
+    private static final int LARGE_EXPORT_FORMS = 300;
+    private static final int PARALLELISM = 3;
+
+    private Path spillDirectory;
+
+    @BeforeClass
+    public void createSpillDirectory() throws IOException {
+        spillDirectory = Files.createTempDirectory("spill");
+    }
+
+    @AfterClass
+    public void deleteSpillDirectory() throws IOException {
+        Files.delete(spillDirectory);
+    }
+
+    private void assertNoSpillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            Assert.assertEquals(files.count(), 0);
+        }
+    }
+
+    private void assertSameDocument(XlsLayout layout, int forms) throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls onHeap = new FormsAsXls(TestForms.repeat(forms, FORMS_AS_JSON), new ArrayList<>());
+        onHeap.setLayout(layout);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        Assert.assertEquals(onHeap.generate(expected).getCount(ExportCounter.SPILLED_BYTES), 0);
+
+        FormsAsXls spilled = new FormsAsXls(TestForms.repeat(forms, FORMS_AS_JSON), new ArrayList<>());
+        spilled.setLayout(layout);
+        spilled.setSpillDirectory(spillDirectory.toString());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExportReport report = spilled.generate(outputStream);
+
+        Assert.assertTrue(report.getCount(ExportCounter.SPILLED_BYTES) > 0);
+        Assert.assertEquals(TestForms.getContent(outputStream.toByteArray()), TestForms.getContent(expected.toByteArray()));
+        assertNoSpillFiles();
+    }
+
+    @Test
+    public void formsAsColumns() throws IOException, URISyntaxException, InvalidXlsElementException {
+        assertSameDocument(XlsLayout.FORMS_AS_COLUMNS, FORMS_AS_JSON.length);
+    }
+
+    @Test
+    public void formsAsRows() throws IOException, URISyntaxException, InvalidXlsElementException {
+        assertSameDocument(XlsLayout.FORMS_AS_ROWS, FORMS_AS_JSON.length);
+    }
+
+    @Test
+    public void largeExport() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.repeat(LARGE_EXPORT_FORMS, FORMS_AS_JSON), new ArrayList<>());
+        xlsDocument.setSpillDirectory(spillDirectory.toString());
+        xlsDocument.setFormat(XlsFormat.XLSX);
+        ExportReport report = xlsDocument.generate(new ByteArrayOutputStream());
+        Assert.assertEquals(report.getCount(ExportCounter.FORMS), LARGE_EXPORT_FORMS);
+        assertNoSpillFiles();
+    }
+
+    @Test
+    public void sparseColumns() throws IOException {
+        StringDictionary dictionary = new StringDictionary();
+        try (SpillStore spillStore = new SpillStore(spillDirectory, dictionary)) {
+            ValueColumn column = spillStore.createColumn();
+            Assert.assertNull(column.get(0));
+            column.set(SpillStore.BLOCK_FORMS * 3 + 1, "last");
+            Assert.assertEquals(spillStore.getBytes(), SpillStore.BLOCK_FORMS * Integer.BYTES);
+            column.set(0, "first");
+            column.set(1, "last");
+            column.set(2, null);
+            Assert.assertEquals(column.get(0), "first");
+            Assert.assertEquals(column.get(1), "last");
+            Assert.assertNull(column.get(2));
+            Assert.assertNull(column.get(SpillStore.BLOCK_FORMS));
+            Assert.assertEquals(column.get(SpillStore.BLOCK_FORMS * 3 + 1), "last");
+            Assert.assertEquals(dictionary.size(), 2);
+
+            column.set(0, null);
+            Assert.assertNull(column.get(0));
+            Assert.assertEquals(spillStore.getBytes(), 2 * SpillStore.BLOCK_FORMS * Integer.BYTES);
+        }
+        assertNoSpillFiles();
+    }
+
+    /**
+     * Checks, each time a form is read, that all the forms except the pending ones are already on the layout, so the values of the forms are not
+     * kept until the last one is read.
+     */
+    private void assertFormsAddedWhileRead(int parallelism, int pendingForms) throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.repeat(LARGE_EXPORT_FORMS, FORMS_AS_JSON), new ArrayList<>());
+        xlsDocument.setParallelism(parallelism);
+        xlsDocument.setSpillDirectory(spillDirectory.toString());
+        ExportMetrics metrics = new ExportMetrics();
+        Iterator<DroolsSubmittedForm> forms = xlsDocument.getForms().iterator();
+        Iterator<DroolsSubmittedForm> checkedForms = new Iterator<>() {
+            private int read = 0;
+
+            @Override
+            public boolean hasNext() {
+                return forms.hasNext();
+            }
+
+            @Override
+            public DroolsSubmittedForm next() {
+                Assert.assertTrue(metrics.get(ExportCounter.FORMS) >= read - pendingForms, read + " forms read, "
+                        + metrics.get(ExportCounter.FORMS) + " on the layout.");
+                read++;
+                return forms.next();
+            }
+        };
+        try (FormsLayout formsLayout = xlsDocument.createConversor(false).createLayout(checkedForms, new ArrayList<>(), metrics)) {
+            Assert.assertEquals(formsLayout.getHeaders().size(), LARGE_EXPORT_FORMS);
+            Assert.assertTrue(formsLayout.getSpilledBytes() > 0);
+        }
+        Assert.assertEquals(metrics.get(ExportCounter.FORMS), LARGE_EXPORT_FORMS);
+        assertNoSpillFiles();
+    }
+
+    @Test
+    public void formsAddedWhileRead() throws IOException, URISyntaxException, InvalidXlsElementException {
+        assertFormsAddedWhileRead(1, 0);
+    }
+
+    @Test
+    public void formsAddedWhileReadConcurrently() throws IOException, URISyntaxException, InvalidXlsElementException {
+        assertFormsAddedWhileRead(PARALLELISM, PARALLELISM * 2);
+    }
+
+    @Test
+    public void closedColumns() throws IOException {
+        ValueColumn column;
+        try (SpillStore spillStore = new SpillStore(spillDirectory, new StringDictionary())) {
+            column = spillStore.createColumn();
+            column.set(0, "value");
+        }
+        assertNoSpillFiles();
+        // The segments are unmapped, a column used after closing must fail before reading them.
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> column.get(0));
+    }
+
+    @Test
+    public void growingColumns() {
+        StringDictionary dictionary = new StringDictionary();
+        ValueColumn column = new ArrayValueColumn(1, dictionary);
+        column.set(0, "first");
+        Assert.assertNull(column.get(SpillStore.BLOCK_FORMS));
+        column.set(SpillStore.BLOCK_FORMS, "last");
+        column.set(SpillStore.BLOCK_FORMS * 2, null);
+        Assert.assertEquals(column.get(0), "first");
+        Assert.assertEquals(column.get(SpillStore.BLOCK_FORMS), "last");
+        Assert.assertNull(column.get(SpillStore.BLOCK_FORMS * 2));
+        Assert.assertEquals(dictionary.size(), 2);
+    }
+}
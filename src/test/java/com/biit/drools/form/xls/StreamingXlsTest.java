@@ -0,0 +1,124 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@Test(groups = {"convertXls"})
+public class StreamingXlsTest {
+    // Sorted by name, as they are read from a folder.
+    private static final String[] FORMS_AS_JSON = {TestForms.FRUSTRATIONS_1, TestForms.FRUSTRATIONS_2, TestForms.FRUSTRATIONS_3, TestForms.CADT};
+
+    private Path folder;
+    private byte[] expected;
+    private String ndjson;
+
+    @BeforeClass
+    public void prepareForms() throws IOException, URISyntaxException, InvalidXlsElementException {
+        folder = Files.createTempDirectory("StreamingXls");
+        List<DroolsSubmittedForm> droolsSubmittedForms = new ArrayList<>();
+        StringBuilder lines = new StringBuilder();
+        for (String file : FORMS_AS_JSON) {
+            String text = TestForms.read(file);
+            droolsSubmittedForms.add(DroolsSubmittedForm.getFromJson(text));
+            Files.write(folder.resolve(file), text.getBytes(StandardCharsets.UTF_8));
+            // Line breaks inside json texts are escaped.
+            lines.append(text.replace('\n', ' ').replace('\r', ' ')).append("\n\n");
+        }
+        // Not a form.
+        Files.write(folder.resolve("readme.txt"), "text".getBytes(StandardCharsets.UTF_8));
+        expected = new FormsAsXls(droolsSubmittedForms, new ArrayList<>()).generate();
+        ndjson = lines.toString();
+    }
+
+    @Test
+    public void fromDirectory() throws InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(SubmittedFormReader.fromDirectory(folder), new ArrayList<>());
+        Assert.assertEquals(xlsDocument.generate(), expected);
+        // Forms are read again.
+        xlsDocument.setParallelism(2);
+        Assert.assertEquals(xlsDocument.generate(), expected);
+    }
+
+    @Test
+    public void fromNdjson() throws InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(SubmittedFormReader.fromNdjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))),
+                new ArrayList<>());
+        Assert.assertEquals(xlsDocument.generate(), expected);
+        // A stream cannot be read twice.
+        Assert.assertThrows(InvalidXlsElementException.class, xlsDocument::generate);
+    }
+
+    @Test
+    public void fromNdjsonConcurrently() throws InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(SubmittedFormReader.fromNdjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))),
+                new ArrayList<>());
+        // Forms are parsed on the pool, and added in the same order.
+        xlsDocument.setParallelism(2);
+        Assert.assertEquals(xlsDocument.generate(), expected);
+    }
+
+    @Test(expectedExceptions = InvalidXlsElementException.class)
+    public void invalidForm() throws InvalidXlsElementException {
+        new FormsAsXls(SubmittedFormReader.fromNdjson(new ByteArrayInputStream("{ not a form".getBytes(StandardCharsets.UTF_8))), new ArrayList<>())
+                .generate();
+    }
+
+    @Test
+    public void invalidFormConcurrently() {
+        String lines = ndjson + "{ not a form\n";
+        for (int parallelism : new int[]{1, 2}) {
+            FormsAsXls xlsDocument = new FormsAsXls(SubmittedFormReader.fromNdjson(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8))),
+                    new ArrayList<>());
+            xlsDocument.setParallelism(parallelism);
+            InvalidXlsElementException exception = Assert.expectThrows(InvalidXlsElementException.class, xlsDocument::generate);
+            // The same error whichever thread parses the form.
+            Assert.assertTrue(exception.getMessage().contains("Invalid form on line 9."), exception.getMessage());
+        }
+    }
+
+    @AfterClass
+    public void removeFolder() {
+        File[] files = folder.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Assert.assertTrue(file.delete());
+            }
+        }
+        Assert.assertTrue(folder.toFile().delete());
+    }
+}
@@ -0,0 +1,122 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Test(groups = {"convertXls"})
+public class StyleTemplateTest {
+    private static final String[] FORMS_AS_JSON = {TestForms.FRUSTRATIONS_1, TestForms.CADT};
+    private static final int THREADS = 4;
+
+    private void assertSameStyle(CellStyle style, CellStyle expected) {
+        XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
+        XSSFCellStyle xssfExpected = (XSSFCellStyle) expected;
+        Assert.assertEquals(xssfStyle.getFont().getCTFont().xmlText(), xssfExpected.getFont().getCTFont().xmlText());
+        Assert.assertEquals(xssfStyle.getFillForegroundXSSFColor().getARGBHex(), xssfExpected.getFillForegroundXSSFColor().getARGBHex());
+        Assert.assertEquals(style.getFillPattern(), expected.getFillPattern());
+        Assert.assertEquals(style.getBorderTop(), expected.getBorderTop());
+        Assert.assertEquals(style.getBorderBottom(), expected.getBorderBottom());
+        Assert.assertEquals(style.getBorderLeft(), expected.getBorderLeft());
+        Assert.assertEquals(style.getBorderRight(), expected.getBorderRight());
+        Assert.assertEquals(style.getAlignment(), expected.getAlignment());
+        Assert.assertEquals(style.getVerticalAlignment(), expected.getVerticalAlignment());
+    }
+
+    @Test
+    public void sameStylesAsSetters() throws IOException {
+        try (XSSFWorkbook expectedWorkbook = new XSSFWorkbook(); XSSFWorkbook workbook = new XSSFWorkbook()) {
+            ExportContext expected = ExportContext.createTemplate(expectedWorkbook);
+            ExportContext context = new ExportContext(workbook, new ExportMetrics());
+            assertSameStyle(context.getTitleStyle(), expected.getTitleStyle());
+            assertSameStyle(context.getAnswerLabelsStyle(), expected.getAnswerLabelsStyle());
+            assertSameStyle(context.getContentStyle(), expected.getContentStyle());
+
+            Assert.assertTrue(((XSSFCellStyle) context.getTitleStyle()).getFont().getBold());
+            Assert.assertEquals(context.getTitleStyle().getBorderTop(), BorderStyle.THIN);
+            Assert.assertEquals(context.getTitleStyle().getAlignment(), HorizontalAlignment.CENTER);
+            Assert.assertEquals(context.getContentStyle().getFillPattern(), FillPatternType.SOLID_FOREGROUND);
+            Assert.assertEquals(context.getContentStyle().getFontIndexAsInt(), 0);
+        }
+    }
+
+    @Test
+    public void noUnusedRecords() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls xlsDocument = new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>());
+        xlsDocument.setFormat(XlsFormat.XLSX);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(xlsDocument.generate()))) {
+            StylesTable stylesTable = workbook.getStylesSource();
+            // Default style and the three styles of the export.
+            Assert.assertEquals(stylesTable.getNumCellStyles(), 4);
+            // Default font, title and answer labels.
+            Assert.assertEquals(stylesTable.getFonts().size(), 3);
+            // Default border, the title and the bottom line shared by answers and content.
+            Assert.assertEquals(stylesTable.getBorders().size(), 3);
+        }
+    }
+
+    @Test
+    public void templatePerThread() throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<StyleTemplate>> templates = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                templates.add(executor.submit(() -> {
+                    // Workbooks are not thread safe, each thread compares with its own one.
+                    try (XSSFWorkbook expectedWorkbook = new XSSFWorkbook(); XSSFWorkbook workbook = new XSSFWorkbook()) {
+                        ExportContext expected = ExportContext.createTemplate(expectedWorkbook);
+                        ExportContext context = new ExportContext(workbook, new ExportMetrics());
+                        assertSameStyle(context.getTitleStyle(), expected.getTitleStyle());
+                        assertSameStyle(context.getAnswerLabelsStyle(), expected.getAnswerLabelsStyle());
+                        assertSameStyle(context.getContentStyle(), expected.getContentStyle());
+                    }
+                    Assert.assertSame(StyleTemplate.getXlsx(), StyleTemplate.getXlsx());
+                    return StyleTemplate.getXlsx();
+                }));
+            }
+            for (Future<StyleTemplate> template : templates) {
+                Assert.assertNotSame(template.get(), StyleTemplate.getXlsx());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Test(groups = {"convertXls"})
+public class TablesXlsTest {
+    private static final String[] FORMS_AS_JSON = {TestForms.FRUSTRATIONS_1, TestForms.FRUSTRATIONS_2, TestForms.CADT, TestForms.FRUSTRATIONS_3};
+
+    /**
+     * Text of the cells of a column of each sheet, from the title row.
+     */
+    private Map<String, List<String>> getColumn(byte[] document, int column) throws IOException {
+        Map<String, List<String>> columns = new LinkedHashMap<>();
+        DataFormatter dataFormatter = new DataFormatter();
+        try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(document))) {
+            for (Sheet sheet : workbook) {
+                List<String> values = new ArrayList<>();
+                for (Row row : sheet) {
+                    Cell cell = row.getCell(column);
+                    values.add(cell == null ? "" : dataFormatter.formatCellValue(cell));
+                }
+                columns.put(sheet.getSheetName(), values);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Text of the cells of a row of each sheet, from the title column.
+     */
+    private Map<String, List<String>> getRow(byte[] document, int rowNumber, int firstColumn) throws IOException {
+        Map<String, List<String>> rows = new LinkedHashMap<>();
+        DataFormatter dataFormatter = new DataFormatter();
+        try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(document))) {
+            for (Sheet sheet : workbook) {
+                List<String> values = new ArrayList<>();
+                Row row = sheet.getRow(rowNumber);
+                for (int column = firstColumn; column < row.getLastCellNum(); column++) {
+                    values.add(dataFormatter.formatCellValue(row.getCell(column)));
+                }
+                rows.put(sheet.getSheetName(), values);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void sameRowsAsWorkbook() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls formsAsXls = new FormsAsXls(TestForms.get(FORMS_AS_JSON), Arrays.asList("A", "B", "C", "D"));
+        Map<String, List<String>> labels = getColumn(formsAsXls.generate(), 1);
+
+        FormsAsTables formsAsTables = new FormsAsTables(formsAsXls);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExportReport report = formsAsTables.generate(outputStream);
+        Map<String, byte[]> entries = TestForms.getEntries(outputStream.toByteArray());
+
+        Assert.assertEquals(entries.size(), labels.size());
+        Assert.assertEquals(report.getCount(ExportCounter.SHEETS), labels.size());
+        Assert.assertEquals(report.getCount(ExportCounter.FORMS), FORMS_AS_JSON.length);
+        for (Map.Entry<String, List<String>> sheet : labels.entrySet()) {
+            String[] lines = new String(entries.get(sheet.getKey() + TableFormat.CSV.getExtension()), StandardCharsets.UTF_8).split("\r\n");
+            if (sheet.getKey().equals("Variables")) {
+                Assert.assertTrue(lines[0].startsWith("Scope,Variables,A,B,C,D"));
+            } else {
+                Assert.assertEquals(lines[0], "Question,A,B,C,D");
+                List<String> csvLabels = new ArrayList<>();
+                for (String line : lines) {
+                    csvLabels.add(line.startsWith("\"") ? line.substring(1, line.indexOf('"', 1)) : line.split(",", -1)[0]);
+                }
+                Assert.assertEquals(csvLabels, sheet.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void transposedTables() throws IOException, URISyntaxException, InvalidXlsElementException {
+        FormsAsXls formsAsXls = new FormsAsXls(TestForms.get(FORMS_AS_JSON), Arrays.asList("A", "B", "C", "D"));
+        formsAsXls.setLayout(XlsLayout.FORMS_AS_ROWS);
+        Map<String, List<String>> titles = getRow(formsAsXls.generate(), 1, 1);
+
+        FormsAsTables formsAsTables = new FormsAsTables(formsAsXls);
+        formsAsTables.setFormat(TableFormat.TSV);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        formsAsTables.generate(outputStream);
+        Map<String, byte[]> entries = TestForms.getEntries(outputStream.toByteArray());
+
+        for (Map.Entry<String, List<String>> sheet : titles.entrySet()) {
+            String[] lines = new String(entries.get(sheet.getKey() + TableFormat.TSV.getExtension()), StandardCharsets.UTF_8).split("\n");
+            Assert.assertEquals(Arrays.asList(lines[0].split("\t", -1)), sheet.getValue());
+            Assert.assertEquals(lines.length, sheet.getKey().equals("Variables") ? FORMS_AS_JSON.length + 2 : FORMS_AS_JSON.length + 1);
+            Assert.assertTrue(lines[lines.length - 1].startsWith("D\t"));
+        }
+    }
+
+    private LayoutTable createTable() {
+        FormsLayout formsLayout = new FormsLayout(new ArrayList<>(Arrays.asList("first, form", "second \"form\"")));
+        AnswersSheetLayout sheetLayout = formsLayout.addSheet(new CompositeKey("category", null), "Category");
+        sheetLayout.getRow("/q1", "Line\nbreak", formsLayout).setAnswer(0, "1.5");
+        sheetLayout.getRow("/q1", "Line\nbreak", formsLayout).setAnswer(1, "-2");
+        sheetLayout.getRow("/q2", "Tab\tand \\", formsLayout).setAnswer(1, "áé");
+        return LayoutTable.of(formsLayout).get(0);
+    }
+
+    @Test
+    public void escaping() throws IOException {
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        new DelimitedTableWriter(TableFormat.CSV, XlsLayout.FORMS_AS_COLUMNS).write(createTable(), csv, new ExportMetrics());
+        Assert.assertEquals(csv.toString(StandardCharsets.UTF_8),
+                "Question,\"first, form\",\"second \"\"form\"\"\"\r\n\"Line\nbreak\",1.5,-2\r\nTab\tand \\,,áé\r\n");
+
+        ByteArrayOutputStream tsv = new ByteArrayOutputStream();
+        new DelimitedTableWriter(TableFormat.TSV, XlsLayout.FORMS_AS_ROWS).write(createTable(), tsv, new ExportMetrics());
+        Assert.assertEquals(tsv.toString(StandardCharsets.UTF_8),
+                "Form\tLine\\nbreak\tTab\\tand \\\\\nfirst, form\t1.5\t\nsecond \"form\"\t-2\táé\n");
+    }
+
+    private String readString(DataInputStream inputStream) throws IOException {
+        int length = inputStream.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        inputStream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void columnar() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExportMetrics metrics = new ExportMetrics();
+        new ColumnarTableWriter().write(createTable(), outputStream, metrics);
+        Assert.assertEquals(metrics.get(ExportCounter.CELLS), 5);
+
+        DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+        byte[] magic = new byte[ColumnarTableWriter.MAGIC.length];
+        inputStream.readFully(magic);
+        Assert.assertEquals(magic, ColumnarTableWriter.MAGIC);
+        Assert.assertEquals(inputStream.readByte(), ColumnarTableWriter.VERSION);
+        Assert.assertEquals(readString(inputStream), "Category");
+        Assert.assertEquals(inputStream.readInt(), 2);
+        Assert.assertEquals(inputStream.readInt(), 3);
+
+        // Headers
+        Assert.assertEquals(readString(inputStream), "Form");
+        Assert.assertNull(readString(inputStream));
+        Assert.assertEquals(inputStream.readByte(), ColumnarTableWriter.TEXT);
+        Assert.assertEquals(inputStream.readByte(), 0b11);
+        Assert.assertEquals(readString(inputStream), "first, form");
+        Assert.assertEquals(readString(inputStream), "second \"form\"");
+
+        // All the answers are numbers.
+        Assert.assertEquals(readString(inputStream), "Line\nbreak");
+        Assert.assertNull(readString(inputStream));
+        Assert.assertEquals(inputStream.readByte(), ColumnarTableWriter.NUMBER);
+        Assert.assertEquals(inputStream.readByte(), 0b11);
+        Assert.assertEquals(inputStream.readDouble(), 1.5);
+        Assert.assertEquals(inputStream.readDouble(), -2.0);
+
+        // Only the second form has answer.
+        Assert.assertEquals(readString(inputStream), "Tab\tand \\");
+        Assert.assertNull(readString(inputStream));
+        Assert.assertEquals(inputStream.readByte(), ColumnarTableWriter.TEXT);
+        Assert.assertEquals(inputStream.readByte(), 0b10);
+        Assert.assertEquals(readString(inputStream), "áé");
+        Assert.assertEquals(inputStream.read(), -1);
+    }
+
+    @Test
+    public void files() throws IOException, URISyntaxException, InvalidXlsElementException {
+        Path directory = Files.createTempDirectory("tables");
+        try {
+            FormsAsTables formsAsTables = new FormsAsTables(new FormsAsXls(TestForms.get(FORMS_AS_JSON), new ArrayList<>()));
+            formsAsTables.setFormat(TableFormat.COLUMNAR);
+            ExportReport report = formsAsTables.createFiles(directory.toString());
+
+            List<Path> files = new ArrayList<>();
+            long bytes = 0;
+            try (Stream<Path> stream = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) stream::iterator) {
+                    files.add(file);
+                    bytes += Files.size(file);
+                    Assert.assertTrue(file.getFileName().toString().endsWith(TableFormat.COLUMNAR.getExtension()));
+                }
+            }
+            Assert.assertEquals(files.size(), report.getCount(ExportCounter.SHEETS));
+            Assert.assertEquals(bytes, report.getCount(ExportCounter.BYTES_WRITTEN));
+            Assert.assertTrue(Files.exists(directory.resolve("Variables" + TableFormat.COLUMNAR.getExtension())));
+        } finally {
+            try (Stream<Path> stream = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) stream::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+}
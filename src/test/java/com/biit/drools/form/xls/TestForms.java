@@ -0,0 +1,130 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.SheetVisibility;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Forms of the test resources, and readers of the generated documents.
+ */
+final class TestForms {
+    static final String FRUSTRATIONS_1 = "The 5 Frustrations on Teamworking 1.json";
+    static final String FRUSTRATIONS_2 = "The 5 Frustrations on Teamworking 2.json";
+    static final String FRUSTRATIONS_3 = "The 5 Frustrations on Teamworking 3.json";
+    static final String CADT = "cadt.json";
+
+    private TestForms() {
+    }
+
+    /**
+     * @return the json of a form of the test resources.
+     */
+    static String read(String file) throws IOException, URISyntaxException {
+        return new String(Files.readAllBytes(Paths.get(TestForms.class.getClassLoader().getResource(file).toURI())), StandardCharsets.UTF_8);
+    }
+
+    static DroolsSubmittedForm getForm(String file) throws IOException, URISyntaxException {
+        return DroolsSubmittedForm.getFromJson(read(file));
+    }
+
+    /**
+     * @return one form of each file, parsed on different objects, in the same order.
+     */
+    static List<DroolsSubmittedForm> get(String... files) throws IOException, URISyntaxException {
+        return repeat(files.length, files);
+    }
+
+    /**
+     * @return the given number of forms, taken from the files in order and starting again from the first file when all are used.
+     */
+    static List<DroolsSubmittedForm> repeat(int forms, String... files) throws IOException, URISyntaxException {
+        String[] texts = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            texts[i] = read(files[i]);
+        }
+        List<DroolsSubmittedForm> droolsSubmittedForms = new ArrayList<>();
+        for (int i = 0; i < forms; i++) {
+            droolsSubmittedForms.add(DroolsSubmittedForm.getFromJson(texts[i % texts.length]));
+        }
+        return droolsSubmittedForms;
+    }
+
+    /**
+     * Text of every visible cell, by sheet name.
+     */
+    static Map<String, String> getContent(byte[] document) throws IOException {
+        Map<String, String> content = new TreeMap<>();
+        DataFormatter dataFormatter = new DataFormatter();
+        try (Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(document))) {
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                if (workbook.getSheetVisibility(i) != SheetVisibility.VISIBLE) {
+                    continue;
+                }
+                Sheet sheet = workbook.getSheetAt(i);
+                StringBuilder text = new StringBuilder();
+                for (Row row : sheet) {
+                    for (Cell cell : row) {
+                        text.append(row.getRowNum()).append(':').append(cell.getColumnIndex()).append('=').append(dataFormatter.formatCellValue(cell))
+                                .append('\n');
+                    }
+                }
+                content.put(sheet.getSheetName(), text.toString());
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Content of each entry of a zip file, in the order of the file.
+     */
+    static Map<String, byte[]> getEntries(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                entries.put(entry.getName(), zipInputStream.readAllBytes());
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,127 @@
+package com.biit.drools.form.xls;
+
+/*-
+ * #%L
+ * Drools Submitted Form XLS Conversor
+ * %%
+ * Copyright (C) 2025 BiiT Sourcing Solutions S.L.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.biit.drools.form.DroolsSubmittedForm;
+import com.biit.drools.form.xls.exceptions.InvalidXlsElementException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Test(groups = {"convertXls"})
+public class VariableCatalogTest {
+    private static final int THREADS = 4;
+    private static final int FORMS_BY_THREAD = 50;
+
+    @Test
+    public void sameSchema() throws IOException, URISyntaxException {
+        VariableCatalog catalog = new VariableCatalog();
+        DroolsSubmittedForm form = TestForms.getForm(TestForms.FRUSTRATIONS_1);
+        DroolsSubmittedForm sameVariables = TestForms.getForm(TestForms.FRUSTRATIONS_1);
+
+        // Same variables in a different order.
+        List<String> xpaths = new ArrayList<>(sameVariables.getFormVariables().keySet());
+        Collections.reverse(xpaths);
+        Map<String, Map<String, Object>> reversed = new LinkedHashMap<>();
+        for (String xpath : xpaths) {
+            reversed.put(xpath, sameVariables.getFormVariables().get(xpath));
+        }
+        sameVariables.setFormVariables(reversed);
+
+        VariableCatalog.Schema schema = catalog.getSchema(FormIndex.of(form));
+        Assert.assertTrue(schema.isCatalogued());
+        Assert.assertSame(catalog.getSchema(FormIndex.of(sameVariables)), schema);
+        Assert.assertNotSame(catalog.getSchema(FormIndex.of(TestForms.getForm(TestForms.CADT))), schema);
+        Assert.assertEquals(catalog.size(), 2);
+    }
+
+    @Test
+    public void sortedVariables() throws IOException, URISyntaxException {
+        DroolsSubmittedForm form = TestForms.getForm(TestForms.CADT);
+        VariableCatalog.Schema schema = new VariableCatalog().getSchema(FormIndex.of(form));
+        String[] values = schema.getValues(form.getFormVariables());
+        Assert.assertTrue(schema.size() > 1);
+        for (int i = 0; i < schema.size(); i++) {
+            if (i > 0) {
+                Assert.assertTrue(schema.getRowKey(i - 1).getFirst().compareTo(schema.getRowKey(i).getFirst()) < 0
+                        || schema.getRowKey(i - 1).getFirst().equals(schema.getRowKey(i).getFirst())
+                        && schema.getKey(i - 1).compareTo(schema.getKey(i)) < 0);
+            }
+            Assert.assertEquals(values[i], String.valueOf(form.getFormVariables().get(schema.getRowKey(i).getFirst()).get(schema.getKey(i))));
+        }
+    }
+
+    @Test
+    public void schemasOfTheExport() throws IOException, URISyntaxException, InvalidXlsElementException {
+        List<DroolsSubmittedForm> forms = new ArrayList<>();
+        forms.add(TestForms.getForm(TestForms.FRUSTRATIONS_1));
+        forms.add(TestForms.getForm(TestForms.CADT));
+        forms.add(TestForms.getForm(TestForms.FRUSTRATIONS_1));
+        forms.add(TestForms.getForm(TestForms.CADT));
+        ExportReport report = new FormsAsXls(forms, new ArrayList<>()).generate(new ByteArrayOutputStream());
+        Assert.assertEquals(report.getCount(ExportCounter.VARIABLE_SCHEMAS), 2);
+    }
+
+    @Test
+    public void concurrentSchemas() throws IOException, URISyntaxException, InterruptedException, ExecutionException {
+        VariableCatalog catalog = new VariableCatalog();
+        List<FormIndex> forms = new ArrayList<>();
+        for (DroolsSubmittedForm form : TestForms.repeat(THREADS * FORMS_BY_THREAD, TestForms.FRUSTRATIONS_1, TestForms.CADT)) {
+            forms.add(FormIndex.of(form));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<VariableCatalog.Schema>>> results = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                results.add(executor.submit(() -> {
+                    List<VariableCatalog.Schema> schemas = new ArrayList<>();
+                    for (FormIndex form : forms) {
+                        schemas.add(catalog.getSchema(form));
+                    }
+                    return schemas;
+                }));
+            }
+            List<VariableCatalog.Schema> expected = results.get(0).get();
+            for (Future<List<VariableCatalog.Schema>> result : results) {
+                List<VariableCatalog.Schema> schemas = result.get();
+                for (int i = 0; i < schemas.size(); i++) {
+                    Assert.assertSame(schemas.get(i), expected.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(catalog.size(), 2);
+    }
+}